@@ -0,0 +1,160 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.engine.math.IntegerRange;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ports of a {@link FluidInventoryAccessComponent} compiled into one bitset of fluid inventory slots per side, so
+ * that checking or iterating the slots a port gives access to doesn't involve walking ranges.
+ * <p>
+ * Sides can be looked up once by name, through {@link #getInputSide(String)} and {@link #getOutputSide(String)}, and
+ * then addressed by index in tight loops.
+ */
+public final class FluidAccessMask {
+    /** The port maps the mask was compiled from */
+    private final Map<String, IntegerRange> input;
+    private final Map<String, IntegerRange> output;
+
+    private final Map<String, Integer> inputSides;
+    private final Map<String, Integer> outputSides;
+    private final BitSet[] inputSlots;
+    private final BitSet[] outputSlots;
+
+    private FluidAccessMask(Map<String, IntegerRange> input, Map<String, IntegerRange> output) {
+        this.input = input;
+        this.output = output;
+        inputSides = new HashMap<>();
+        inputSlots = compile(input, inputSides);
+        outputSides = new HashMap<>();
+        outputSlots = compile(output, outputSides);
+    }
+
+    /**
+     * Compiles the ports of an access component.
+     *
+     * @param access The access component to compile
+     * @return       The compiled ports
+     */
+    static FluidAccessMask of(FluidInventoryAccessComponent access) {
+        return new FluidAccessMask(access.input, access.output);
+    }
+
+    /**
+     * Checks whether the mask was compiled from the current port maps of an access component. Deserialization replaces
+     * the maps rather than filling them in, so this catches ports that changed without the component being saved.
+     *
+     * @param access The access component
+     * @return       Whether the mask was compiled from its maps
+     */
+    boolean isCompiledFrom(FluidInventoryAccessComponent access) {
+        return input == access.input && output == access.output;
+    }
+
+    private static BitSet[] compile(Map<String, IntegerRange> ports, Map<String, Integer> sides) {
+        BitSet[] slots = new BitSet[ports.size()];
+        for (Map.Entry<String, IntegerRange> port : ports.entrySet()) {
+            BitSet portSlots = new BitSet();
+            if (port.getValue() != null) {
+                for (int slot : port.getValue()) {
+                    if (slot >= 0) {
+                        portSlots.set(slot);
+                    }
+                }
+            }
+            slots[sides.size()] = portSlots;
+            sides.put(port.getKey(), sides.size());
+        }
+        return slots;
+    }
+
+    /**
+     * Accessor function that returns the index of an input side.
+     *
+     * @param side The name of the input side
+     * @return     The index of the side, or -1 if there is no such input side
+     */
+    public int getInputSide(String side) {
+        return inputSides.getOrDefault(side, -1);
+    }
+
+    /**
+     * Accessor function that returns the index of an output side.
+     *
+     * @param side The name of the output side
+     * @return     The index of the side, or -1 if there is no such output side
+     */
+    public int getOutputSide(String side) {
+        return outputSides.getOrDefault(side, -1);
+    }
+
+    /**
+     * Checks whether an input side gives access to a fluid inventory slot.
+     *
+     * @param side The index of the input side, or -1
+     * @param slot The slot number of the fluid inventory
+     * @return     Whether fluid may be put into the slot through the side
+     */
+    public boolean canInput(int side, int slot) {
+        return side >= 0 && slot >= 0 && inputSlots[side].get(slot);
+    }
+
+    /**
+     * Checks whether an output side gives access to a fluid inventory slot.
+     *
+     * @param side The index of the output side, or -1
+     * @param slot The slot number of the fluid inventory
+     * @return     Whether fluid may be taken from the slot through the side
+     */
+    public boolean canOutput(int side, int slot) {
+        return side >= 0 && slot >= 0 && outputSlots[side].get(slot);
+    }
+
+    /**
+     * Checks whether an input side gives access to a fluid inventory slot.
+     *
+     * @param side The name of the input side
+     * @param slot The slot number of the fluid inventory
+     * @return     Whether fluid may be put into the slot through the side
+     */
+    public boolean canInput(String side, int slot) {
+        return canInput(getInputSide(side), slot);
+    }
+
+    /**
+     * Checks whether an output side gives access to a fluid inventory slot.
+     *
+     * @param side The name of the output side
+     * @param slot The slot number of the fluid inventory
+     * @return     Whether fluid may be taken from the slot through the side
+     */
+    public boolean canOutput(String side, int slot) {
+        return canOutput(getOutputSide(side), slot);
+    }
+
+    /**
+     * Finds the next fluid inventory slot an input side gives access to, to iterate over its slots.
+     *
+     * @param side     The index of the input side, or -1
+     * @param fromSlot The slot number to start looking from, inclusive
+     * @return         The next slot number, or -1 if there are no more
+     */
+    public int nextInputSlot(int side, int fromSlot) {
+        return side >= 0 ? inputSlots[side].nextSetBit(Math.max(0, fromSlot)) : -1;
+    }
+
+    /**
+     * Finds the next fluid inventory slot an output side gives access to, to iterate over its slots.
+     *
+     * @param side     The index of the output side, or -1
+     * @param fromSlot The slot number to start looking from, inclusive
+     * @return         The next slot number, or -1 if there are no more
+     */
+    public int nextOutputSlot(int side, int fromSlot) {
+        return side >= 0 ? outputSlots[side].nextSetBit(Math.max(0, fromSlot)) : -1;
+    }
+}
@@ -36,6 +36,45 @@ public class FluidContainerItemComponent implements Component<FluidContainerItem
     /** The texture of the container when it is empty */
     public TextureRegionAsset<?> emptyTexture;
 
+    /**
+     * The granularity of the volume, so that containers holding the same number of quanta stack together. Transfers into
+     * and out of the container are rounded with {@link #quantizeVolume} so that its volume stays a whole number of
+     * quanta, leaving the rest of the fluid where it came from. 0 keeps and compares exact volumes.
+     */
+    public float volumeQuantum;
+
+    /**
+     * Accessor function that returns the volume as used for comparing containers: the number of volume quanta the
+     * container holds, or the exact bits of the volume if quantization is disabled.
+     *
+     * @return The key identifying the volume of the container
+     */
+    private long getVolumeKey() {
+        if (volumeQuantum > 0) {
+            return Math.round(volume / volumeQuantum);
+        }
+        return Float.floatToIntBits(volume);
+    }
+
+    /**
+     * Rounds a volume the container is about to hold to a whole number of volume quanta, within its maximum volume.
+     * Callers round in the direction that transfers less fluid and leave the difference with the other side of the
+     * transfer, so that no fluid is created or destroyed.
+     *
+     * @param newVolume The volume the container would hold after the transfer
+     * @param roundUp   Whether to round up, when fluid is taken out of the container, rather than down
+     * @return          The volume the container may hold, or the given volume if quantization is disabled
+     */
+    public float quantizeVolume(float newVolume, boolean roundUp) {
+        if (volumeQuantum <= 0) {
+            return newVolume;
+        }
+        double quanta = newVolume / volumeQuantum;
+        // Don't let a rounding error in the division cost a whole quantum.
+        double roundedQuanta = roundUp ? Math.ceil(quanta - 1e-4) : Math.floor(quanta + 1e-4);
+        return Math.max(0, Math.min(maxVolume, (float) (roundedQuanta * volumeQuantum)));
+    }
+
     /**
      * Checks whether the fluid container's attributes are the same as those of a given object.
      *
@@ -51,7 +90,8 @@ public class FluidContainerItemComponent implements Component<FluidContainerItem
             return false;
         }
         FluidContainerItemComponent that = (FluidContainerItemComponent) o;
-        return Float.compare(that.volume, volume) == 0
+        return Float.compare(that.volumeQuantum, volumeQuantum) == 0
+                && that.getVolumeKey() == getVolumeKey()
                 && Float.compare(that.maxVolume, maxVolume) == 0
                 && Objects.equal(fluidType, that.fluidType)
                 && Objects.equal(fluidMinPerc, that.fluidMinPerc)
@@ -60,9 +100,15 @@ public class FluidContainerItemComponent implements Component<FluidContainerItem
                 && Objects.equal(emptyTexture, that.emptyTexture);
     }
 
+    /**
+     * Returns the hash code of the fluid container, consistent with the quantized comparison of {@link #equals}.
+     *
+     * @return The hash code of the fluid container
+     */
     @Override
     public int hashCode() {
-        return Objects.hashCode(fluidType, volume, maxVolume, fluidMinPerc, fluidSizePerc, textureWithHole, emptyTexture);
+        return Objects.hashCode(fluidType, getVolumeKey(), volumeQuantum, maxVolume, fluidMinPerc, fluidSizePerc,
+                textureWithHole, emptyTexture);
     }
 
     @Override
@@ -74,5 +120,6 @@ public class FluidContainerItemComponent implements Component<FluidContainerItem
         this.fluidSizePerc = new Vector2f(other.fluidSizePerc);
         this.textureWithHole = other.textureWithHole;
         this.emptyTexture = other.emptyTexture;
+        this.volumeQuantum = other.volumeQuantum;
     }
 }
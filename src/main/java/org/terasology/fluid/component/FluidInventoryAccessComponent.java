@@ -10,10 +10,43 @@ import java.util.Map;
 
 /**
  * A component for integration with a Computer module.
+ * <p>
+ * Each port (side) maps to the range of fluid inventory slots it gives access to. A port can also be given a maximum
+ * throughput, in litres per tick; ports without one are unlimited. The limits apply to fluid moved between this entity
+ * and another one with {@code moveFluid} as well as {@code moveFluidThroughPorts} of the
+ * {@link org.terasology.fluid.system.FluidManager}.
+ * <p>
+ * The ports are compiled into a {@link FluidAccessMask} on first use, and again whenever the port maps are replaced.
+ * Code that changes the ports in place has to call {@link #invalidateAccessMask()}, which saving the component takes
+ * care of.
  */
 public class FluidInventoryAccessComponent implements Component<FluidInventoryAccessComponent> {
     public Map<String, IntegerRange> input = new HashMap<>();
     public Map<String, IntegerRange> output = new HashMap<>();
+    public Map<String, Float> inputRate = new HashMap<>();
+    public Map<String, Float> outputRate = new HashMap<>();
+
+    /** The compiled ports, or null if they have to be compiled again */
+    private transient FluidAccessMask accessMask;
+
+    /**
+     * Accessor function that returns the ports compiled into bitsets, compiling them if they changed.
+     *
+     * @return The compiled ports
+     */
+    public FluidAccessMask getAccessMask() {
+        if (accessMask == null || !accessMask.isCompiledFrom(this)) {
+            accessMask = FluidAccessMask.of(this);
+        }
+        return accessMask;
+    }
+
+    /**
+     * Discards the compiled ports, so that they are compiled again on next use.
+     */
+    public void invalidateAccessMask() {
+        accessMask = null;
+    }
 
     @Override
     public void copyFrom(FluidInventoryAccessComponent other) {
@@ -25,5 +58,10 @@ public class FluidInventoryAccessComponent implements Component<FluidInventoryAc
         for (Map.Entry<String, IntegerRange> entry : other.output.entrySet()) {
             this.output.put(entry.getKey(), entry.getValue().copy());
         }
+        this.inputRate.clear();
+        this.inputRate.putAll(other.inputRate);
+        this.outputRate.clear();
+        this.outputRate.putAll(other.outputRate);
+        this.accessMask = null;
     }
 }
@@ -0,0 +1,33 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares fill levels of fluid inventory slots that the entity wants to be told about. Whenever the fluid manager or
+ * a snapshot restore changes the volume in one of the slots so that it crosses one of its levels, in either direction,
+ * a {@link org.terasology.fluid.event.FluidLevelCrossed} event is sent to the entity.
+ * <p>
+ * The two lists are parallel: the level at an index applies to the slot at the same index, and a slot may appear
+ * several times to watch several levels.
+ */
+public class FluidLevelTriggerComponent implements Component<FluidLevelTriggerComponent> {
+    /** The slot numbers of the fluid inventory to watch */
+    public List<Integer> slots = new ArrayList<>();
+
+    /**
+     * The levels to watch, as fractions of the maximum volume of the slot. A level is reached once the volume is at
+     * least that fraction; 0 stands for the slot holding any fluid at all.
+     */
+    public List<Float> levels = new ArrayList<>();
+
+    @Override
+    public void copyFrom(FluidLevelTriggerComponent other) {
+        this.slots = new ArrayList<>(other.slots);
+        this.levels = new ArrayList<>(other.levels);
+    }
+}
@@ -0,0 +1,44 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.engine.network.Replicate;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declares slow, passive changes to the slots of a fluid inventory, such as evaporation, leaks or filling up with rain.
+ * <p>
+ * Nothing runs every tick for them. The current volume is worked out from the time elapsed since {@link #lastUpdates}
+ * whenever it is read through {@link org.terasology.fluid.system.FluidUtils}, and written into the slots whenever the
+ * {@link org.terasology.fluid.system.FluidManager} changes the fluid inventory or it is unloaded. Time spent unloaded
+ * doesn't count.
+ */
+public class FluidPassiveRateComponent implements Component<FluidPassiveRateComponent> {
+    /** The change of volume of each slot, in litres per second; negative rates drain the slot */
+    @Replicate
+    public List<Float> rates = new ArrayList<>();
+
+    /**
+     * The type of fluid each slot fills up with, for positive rates. A slot holding a different fluid doesn't fill up,
+     * and a slot without a type here only fills up with the fluid it already holds.
+     */
+    @Replicate
+    public List<String> fluidTypes = new ArrayList<>();
+
+    /**
+     * The game time, in milliseconds, up to which the rate of each slot has been written into it. Each slot keeps its own
+     * clock, so that a slow rate still accrues while other slots of the fluid inventory change.
+     */
+    @Replicate
+    public List<Long> lastUpdates = new ArrayList<>();
+
+    @Override
+    public void copyFrom(FluidPassiveRateComponent other) {
+        this.rates = new ArrayList<>(other.rates);
+        this.fluidTypes = new ArrayList<>(other.fluidTypes);
+        this.lastUpdates = new ArrayList<>(other.lastUpdates);
+    }
+}
@@ -0,0 +1,31 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Describes the physical properties of a fluid. Placed on the prefab of the fluid (or of its liquid block), and read
+ * through {@link org.terasology.fluid.system.FluidRegistry#getFluidProperties(String)}.
+ */
+public class FluidPropertiesComponent implements Component<FluidPropertiesComponent> {
+    /** The density of the fluid, in kilograms per litre */
+    public float density = 1f;
+
+    /** The viscosity of the fluid, relative to water */
+    public float viscosity = 1f;
+
+    /** The rate at which the fluid flows through pipes and ports, relative to water */
+    public float flowRate = 1f;
+
+    /** The temperature of the fluid, in degrees Celsius */
+    public float temperature = 20f;
+
+    @Override
+    public void copyFrom(FluidPropertiesComponent other) {
+        this.density = other.density;
+        this.viscosity = other.viscosity;
+        this.flowRate = other.flowRate;
+        this.temperature = other.temperature;
+    }
+}
@@ -0,0 +1,31 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Describes a mixing rule between two fluids. Prefabs with this component are compiled into a reaction table at
+ * startup, and the rule is applied whenever the added fluid is moved into a slot holding the present fluid.
+ */
+public class FluidReactionComponent implements Component<FluidReactionComponent> {
+    /** The type of the fluid being moved into the slot */
+    public String addedFluid;
+
+    /** The type of the fluid already in the destination slot */
+    public String presentFluid;
+
+    /** The type of the fluid the mixture turns into */
+    public String resultFluid;
+
+    /** The volume of the resulting fluid produced per unit of volume of the mixture */
+    public float yield = 1f;
+
+    @Override
+    public void copyFrom(FluidReactionComponent other) {
+        this.addedFluid = other.addedFluid;
+        this.presentFluid = other.presentFluid;
+        this.resultFluid = other.resultFluid;
+        this.yield = other.yield;
+    }
+}
@@ -0,0 +1,31 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.component;
+
+import org.terasology.engine.network.Replicate;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A coarse view of the contents of a fluid inventory, replicated to every client that has the entity. Fluid slot
+ * entities are only replicated to the client viewing the fluid inventory, so everyone else draws from this instead.
+ * <p>
+ * The fill fractions are rounded, so that small changes in volume don't need to be replicated.
+ */
+public class FluidSummaryComponent implements Component<FluidSummaryComponent> {
+    /** The type of fluid in each slot, or null for empty slots */
+    @Replicate
+    public List<String> fluidTypes = new ArrayList<>();
+
+    /** The volume of fluid in each slot, as a rounded fraction of its maximum volume */
+    @Replicate
+    public List<Float> fillFractions = new ArrayList<>();
+
+    @Override
+    public void copyFrom(FluidSummaryComponent other) {
+        this.fluidTypes = new ArrayList<>(other.fluidTypes);
+        this.fillFractions = new ArrayList<>(other.fillFractions);
+    }
+}
@@ -0,0 +1,56 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event covering the generation of a fluid texture by the fluid container asset resolver.
+ * Disabled by default; enable {@code org.terasology.fluid.AssetGeneration} in the recording settings to capture it.
+ */
+@Name("org.terasology.fluid.AssetGeneration")
+@Label("Fluid Asset Generation")
+@Description("A fluid or fluid container texture composited on request of the asset system")
+@Category({"Terasology", "Fluid"})
+@Enabled(false)
+@StackTrace(false)
+public class FluidAssetGenerationFlightEvent extends Event {
+    @Label("Asset")
+    String asset;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Generated")
+    @Description("Whether texture data was produced for the asset")
+    boolean generated;
+
+    /**
+     * Ends the timing of the generation and commits the event, if it is enabled in the current recording. The fluid
+     * type and container texture are part of the asset URN.
+     *
+     * @param assetUrn    The URN of the generated asset
+     * @param imageWidth  The width of the generated texture, or 0
+     * @param imageHeight The height of the generated texture, or 0
+     * @param success     Whether texture data was produced
+     */
+    public void end(String assetUrn, int imageWidth, int imageHeight, boolean success) {
+        if (!shouldCommit()) {
+            return;
+        }
+        asset = assetUrn;
+        width = imageWidth;
+        height = imageHeight;
+        generated = success;
+        commit();
+    }
+}
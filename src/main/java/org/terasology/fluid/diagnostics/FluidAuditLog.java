@@ -0,0 +1,200 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A fixed-size ring buffer of fluid operations, stored off-heap in a fixed binary layout so that recording an
+ * operation doesn't allocate. Once full, the oldest records are overwritten.
+ * <p>
+ * A dump consists of a header followed by the records, oldest first:
+ * <pre>
+ * int    magic ({@link #MAGIC})
+ * int    format version ({@link #VERSION})
+ * int    record size in bytes ({@link #RECORD_SIZE})
+ * long   number of operations recorded since the log was created
+ * int    number of records in the dump
+ * int    number of fluid type names
+ * for each fluid type name: short length, UTF-8 bytes (the index is the fluid id)
+ * records
+ * </pre>
+ * Each record is laid out as follows, big-endian:
+ * <pre>
+ *  0 long  game time in milliseconds
+ *  8 long  instigator entity id
+ * 16 long  source entity id (0 if the fluid was created)
+ * 24 long  target entity id (0 if the fluid was destroyed)
+ * 32 int   source slot (-1 if not applicable)
+ * 36 int   target slot (-1 if not applicable)
+ * 40 int   fluid id (-1 if the fluid type is not registered)
+ * 44 float requested volume
+ * 48 float applied volume
+ * 52 byte  operation
+ * 53 byte  1 if a veto handler refused the operation, 0 otherwise
+ * 54 short padding
+ * </pre>
+ */
+public final class FluidAuditLog {
+    /** Fluid was added to a fluid inventory slot */
+    public static final byte ADD = 1;
+    /** Fluid was removed from a fluid inventory slot */
+    public static final byte REMOVE = 2;
+    /** Fluid was moved from one fluid inventory slot to another */
+    public static final byte MOVE = 3;
+    /** A handler of {@link org.terasology.fluid.event.BeforeFluidPutInInventory} was asked about an operation */
+    public static final byte PUT_CHECK = 4;
+    /** A handler of {@link org.terasology.fluid.event.BeforeFluidRemovedFromInventory} was asked about an operation */
+    public static final byte REMOVE_CHECK = 5;
+
+    public static final int MAGIC = 0x464C4155;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 56;
+
+    static final int TIME_OFFSET = 0;
+    static final int INSTIGATOR_OFFSET = 8;
+    static final int SOURCE_OFFSET = 16;
+    static final int TARGET_OFFSET = 24;
+    static final int SOURCE_SLOT_OFFSET = 32;
+    static final int TARGET_SLOT_OFFSET = 36;
+    static final int FLUID_OFFSET = 40;
+    static final int REQUESTED_OFFSET = 44;
+    static final int APPLIED_OFFSET = 48;
+    static final int OPERATION_OFFSET = 52;
+    static final int VETOED_OFFSET = 53;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private long recorded;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param capacity The maximum number of records kept
+     * @throws ArithmeticException if the buffer for that many records would exceed the largest possible buffer
+     */
+    public FluidAuditLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, RECORD_SIZE));
+    }
+
+    /**
+     * Records an operation, overwriting the oldest record if the log is full.
+     *
+     * @param time            The game time of the operation, in milliseconds
+     * @param operation       The kind of operation, one of the operation constants of this class
+     * @param instigatorId    The id of the instigator entity
+     * @param sourceId        The id of the entity the fluid was taken from, or 0
+     * @param sourceSlot      The slot of the source fluid inventory, or -1
+     * @param targetId        The id of the entity the fluid was put into, or 0
+     * @param targetSlot      The slot of the target fluid inventory, or -1
+     * @param fluidId         The id of the fluid type, or -1
+     * @param requestedVolume The volume the caller asked for
+     * @param appliedVolume   The volume that actually changed hands
+     * @param vetoed          Whether a veto handler refused the operation
+     */
+    public void record(long time, byte operation, long instigatorId, long sourceId, int sourceSlot, long targetId,
+                       int targetSlot, int fluidId, float requestedVolume, float appliedVolume, boolean vetoed) {
+        int offset = (int) (recorded % capacity) * RECORD_SIZE;
+        buffer.putLong(offset + TIME_OFFSET, time);
+        buffer.putLong(offset + INSTIGATOR_OFFSET, instigatorId);
+        buffer.putLong(offset + SOURCE_OFFSET, sourceId);
+        buffer.putLong(offset + TARGET_OFFSET, targetId);
+        buffer.putInt(offset + SOURCE_SLOT_OFFSET, sourceSlot);
+        buffer.putInt(offset + TARGET_SLOT_OFFSET, targetSlot);
+        buffer.putInt(offset + FLUID_OFFSET, fluidId);
+        buffer.putFloat(offset + REQUESTED_OFFSET, requestedVolume);
+        buffer.putFloat(offset + APPLIED_OFFSET, appliedVolume);
+        buffer.put(offset + OPERATION_OFFSET, operation);
+        buffer.put(offset + VETOED_OFFSET, vetoed ? (byte) 1 : (byte) 0);
+        recorded++;
+    }
+
+    /**
+     * Accessor function that returns the maximum number of records kept.
+     *
+     * @return The capacity of the log
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Accessor function that returns the number of operations recorded since the log was created, including the ones
+     * that have since been overwritten.
+     *
+     * @return The number of recorded operations
+     */
+    public long getRecordedCount() {
+        return recorded;
+    }
+
+    /**
+     * Accessor function that returns the number of records currently held.
+     *
+     * @return The number of records in the log
+     */
+    public int getSize() {
+        return (int) Math.min(recorded, capacity);
+    }
+
+    /**
+     * Writes the header and all the records held, oldest first.
+     *
+     * @param channel    The channel to write to
+     * @param fluidTypes The fluid type names, indexed by fluid id
+     * @throws IOException If writing to the channel fails
+     */
+    public void writeTo(WritableByteChannel channel, List<String> fluidTypes) throws IOException {
+        int size = getSize();
+
+        int headerSize = 4 + 4 + 4 + 8 + 4 + 4;
+        byte[][] names = new byte[fluidTypes.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fluidTypes.get(i) != null ? fluidTypes.get(i).getBytes(StandardCharsets.UTF_8) : new byte[0];
+            headerSize += 2 + names[i].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(RECORD_SIZE);
+        header.putLong(recorded);
+        header.putInt(size);
+        header.putInt(names.length);
+        for (byte[] name : names) {
+            header.putShort((short) name.length);
+            header.put(name);
+        }
+        header.flip();
+        writeFully(channel, header);
+
+        ByteBuffer records = buffer.duplicate();
+        if (recorded <= capacity) {
+            records.position(0);
+            records.limit(size * RECORD_SIZE);
+            writeFully(channel, records);
+        } else {
+            // The oldest record sits right after the newest one once the buffer has wrapped around.
+            int start = (int) (recorded % capacity) * RECORD_SIZE;
+            records.position(start);
+            records.limit(capacity * RECORD_SIZE);
+            writeFully(channel, records);
+            records.position(0);
+            records.limit(start);
+            writeFully(channel, records);
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
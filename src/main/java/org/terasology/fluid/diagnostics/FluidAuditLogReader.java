@@ -0,0 +1,155 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the files written by the {@code fluidAuditDump} console command. Meant to be used offline, from a tool or a
+ * test opening the dump and passing it to {@link #read(InputStream)}; {@link #format(Record)} gives one line per record.
+ */
+public final class FluidAuditLogReader {
+    private final long recordedCount;
+    private final List<String> fluidTypes;
+    private final List<Record> records;
+
+    private FluidAuditLogReader(long recordedCount, List<String> fluidTypes, List<Record> records) {
+        this.recordedCount = recordedCount;
+        this.fluidTypes = fluidTypes;
+        this.records = records;
+    }
+
+    /**
+     * Reads an audit log dump. The stream is left open for the caller to close.
+     *
+     * @param stream The contents of the dump
+     * @return The reader holding the contents of the dump
+     * @throws IOException If the dump can't be read or is not an audit log dump
+     */
+    public static FluidAuditLogReader read(InputStream stream) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+        if (input.readInt() != FluidAuditLog.MAGIC) {
+            throw new IOException("Not a fluid audit log");
+        }
+        int version = input.readInt();
+        if (version != FluidAuditLog.VERSION) {
+            throw new IOException("Unsupported fluid audit log version " + version);
+        }
+        int recordSize = input.readInt();
+        long recordedCount = input.readLong();
+        int recordCount = input.readInt();
+
+        int fluidCount = input.readInt();
+        List<String> fluidTypes = new ArrayList<>(fluidCount);
+        for (int i = 0; i < fluidCount; i++) {
+            byte[] name = new byte[input.readShort()];
+            input.readFully(name);
+            fluidTypes.add(new String(name, StandardCharsets.UTF_8));
+        }
+
+        List<Record> records = new ArrayList<>(recordCount);
+        byte[] bytes = new byte[recordSize];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < recordCount; i++) {
+            input.readFully(bytes);
+            records.add(new Record(buffer));
+        }
+        return new FluidAuditLogReader(recordedCount, fluidTypes, records);
+    }
+
+    /**
+     * Accessor function that returns the number of operations recorded before the dump, including overwritten ones.
+     *
+     * @return The number of recorded operations
+     */
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Accessor function that returns the records in the dump, oldest first.
+     *
+     * @return The records in the dump
+     */
+    public List<Record> getRecords() {
+        return records;
+    }
+
+    /**
+     * Accessor function that returns the name of a fluid type in the dump.
+     *
+     * @param fluidId The id of the fluid type
+     * @return The name of the fluid type, or a placeholder if the id is unknown
+     */
+    public String getFluidType(int fluidId) {
+        return fluidId >= 0 && fluidId < fluidTypes.size() ? fluidTypes.get(fluidId) : "<unregistered>";
+    }
+
+    /**
+     * Formats a record as a single line of text.
+     *
+     * @param record The record to format
+     * @return The text representation of the record
+     */
+    public String format(Record record) {
+        return String.format("%d %s instigator=%d from=%d[%d] to=%d[%d] %s requested=%.3f applied=%.3f%s",
+                record.time, operationName(record.operation), record.instigatorId, record.sourceId, record.sourceSlot,
+                record.targetId, record.targetSlot, getFluidType(record.fluidId), record.requestedVolume,
+                record.appliedVolume, record.vetoed ? " VETOED" : "");
+    }
+
+    private static String operationName(byte operation) {
+        switch (operation) {
+            case FluidAuditLog.ADD:
+                return "ADD";
+            case FluidAuditLog.REMOVE:
+                return "REMOVE";
+            case FluidAuditLog.MOVE:
+                return "MOVE";
+            case FluidAuditLog.PUT_CHECK:
+                return "PUT_CHECK";
+            case FluidAuditLog.REMOVE_CHECK:
+                return "REMOVE_CHECK";
+            default:
+                return "UNKNOWN(" + operation + ")";
+        }
+    }
+
+    /**
+     * A single recorded fluid operation. See {@link FluidAuditLog} for the meaning of the fields.
+     */
+    public static final class Record {
+        public final long time;
+        public final long instigatorId;
+        public final long sourceId;
+        public final long targetId;
+        public final int sourceSlot;
+        public final int targetSlot;
+        public final int fluidId;
+        public final float requestedVolume;
+        public final float appliedVolume;
+        public final byte operation;
+        public final boolean vetoed;
+
+        private Record(ByteBuffer buffer) {
+            time = buffer.getLong(FluidAuditLog.TIME_OFFSET);
+            instigatorId = buffer.getLong(FluidAuditLog.INSTIGATOR_OFFSET);
+            sourceId = buffer.getLong(FluidAuditLog.SOURCE_OFFSET);
+            targetId = buffer.getLong(FluidAuditLog.TARGET_OFFSET);
+            sourceSlot = buffer.getInt(FluidAuditLog.SOURCE_SLOT_OFFSET);
+            targetSlot = buffer.getInt(FluidAuditLog.TARGET_SLOT_OFFSET);
+            fluidId = buffer.getInt(FluidAuditLog.FLUID_OFFSET);
+            requestedVolume = buffer.getFloat(FluidAuditLog.REQUESTED_OFFSET);
+            appliedVolume = buffer.getFloat(FluidAuditLog.APPLIED_OFFSET);
+            operation = buffer.get(FluidAuditLog.OPERATION_OFFSET);
+            vetoed = buffer.get(FluidAuditLog.VETOED_OFFSET) != 0;
+        }
+    }
+}
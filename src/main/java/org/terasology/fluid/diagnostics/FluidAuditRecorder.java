@@ -0,0 +1,35 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Records fluid operations into the audit log, when auditing has been enabled.
+ */
+public interface FluidAuditRecorder {
+    /**
+     * Checks whether operations are currently being recorded. Callers should check this before gathering the
+     * arguments of {@link #record}.
+     *
+     * @return Whether auditing is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Records a fluid operation.
+     *
+     * @param operation       The kind of operation, one of the operation constants of {@link FluidAuditLog}
+     * @param instigator      The instigator of the operation
+     * @param source          The entity the fluid is taken from, or {@link EntityRef#NULL} if it's created
+     * @param sourceSlot      The slot of the source fluid inventory, or -1 if not applicable
+     * @param target          The entity the fluid is put into, or {@link EntityRef#NULL} if it's destroyed
+     * @param targetSlot      The slot of the target fluid inventory, or -1 if not applicable
+     * @param fluidType       The type of fluid involved
+     * @param requestedVolume The volume the caller asked for
+     * @param appliedVolume   The volume that actually changed hands
+     * @param vetoed          Whether a veto handler refused the operation
+     */
+    void record(byte operation, EntityRef instigator, EntityRef source, int sourceSlot, EntityRef target, int targetSlot,
+                String fluidType, float requestedVolume, float appliedVolume, boolean vetoed);
+}
@@ -0,0 +1,138 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.utilities.SandboxFileManager;
+import org.terasology.fluid.system.FluidRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the optional audit log of fluid operations, and provides the console commands to control and dump it. Auditing
+ * is disabled by default, in which case recording costs a single check.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidAuditRecorder.class)
+public class FluidAuditSystem extends BaseComponentSystem implements FluidAuditRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(FluidAuditSystem.class);
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    /** The most records the log may hold, so that it takes at most about 56 MB of direct memory */
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    @In
+    private Time time;
+
+    @In
+    private FluidRegistry fluidRegistry;
+
+    private FluidAuditLog auditLog;
+
+    /** The ids of the fluid types recorded so far, so that recording doesn't need to look them up in the registry */
+    private Map<String, Integer> fluidIds = new HashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return auditLog != null;
+    }
+
+    @Override
+    public void record(byte operation, EntityRef instigator, EntityRef source, int sourceSlot, EntityRef target, int targetSlot,
+                       String fluidType, float requestedVolume, float appliedVolume, boolean vetoed) {
+        if (auditLog == null) {
+            return;
+        }
+        auditLog.record(time.getGameTimeInMs(), operation, instigator.getId(), source.getId(), sourceSlot, target.getId(),
+                targetSlot, getFluidId(fluidType), requestedVolume, appliedVolume, vetoed);
+    }
+
+    /**
+     * Get the id of a fluid type, looking it up in the registry only the first time it is recorded. Ids never change once
+     * assigned, but unregistered fluid types aren't remembered, as they may be registered later.
+     *
+     * @param fluidType The fluid type, or null
+     * @return          The id of the fluid type, or -1 if it is null or not registered
+     */
+    private int getFluidId(String fluidType) {
+        if (fluidType == null) {
+            return -1;
+        }
+        Integer fluidId = fluidIds.get(fluidType);
+        if (fluidId == null) {
+            fluidId = fluidRegistry.getFluidId(fluidType);
+            if (fluidId < 0) {
+                return fluidId;
+            }
+            fluidIds.put(fluidType, fluidId);
+        }
+        return fluidId;
+    }
+
+    @Command(shortDescription = "Starts recording fluid operations",
+            helpText = "Starts recording fluid operations into a ring buffer holding the given number of records, at most "
+                    + "1048576, discarding anything recorded so far.",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidAuditStart(@CommandParam(value = "capacity", required = false) Integer capacity) {
+        int records = capacity != null ? capacity : DEFAULT_CAPACITY;
+        if (records <= 0 || records > MAX_CAPACITY) {
+            return "Capacity must be between 1 and " + MAX_CAPACITY + ".";
+        }
+        auditLog = new FluidAuditLog(records);
+        return "Recording fluid operations, keeping the last " + records + ".";
+    }
+
+    @Command(shortDescription = "Stops recording fluid operations",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidAuditStop() {
+        auditLog = null;
+        fluidIds.clear();
+        return "Stopped recording fluid operations.";
+    }
+
+    @Command(shortDescription = "Writes the recorded fluid operations to a file",
+            helpText = "Writes the recorded fluid operations to the given file in the sandbox directory of the game's "
+                    + "home directory. Read it with org.terasology.fluid.diagnostics.FluidAuditLogReader.",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidAuditDump(@CommandParam("fileName") String fileName) {
+        if (auditLog == null) {
+            return "Fluid operations are not being recorded, use fluidAuditStart first.";
+        }
+        List<String> fluidTypes = new ArrayList<>();
+        for (int i = 0; i < fluidRegistry.getFluidCount(); i++) {
+            fluidTypes.add(fluidRegistry.getFluidType(i));
+        }
+        FluidAuditLog log = auditLog;
+        try {
+            // The sandbox file manager keeps the dump inside the sandbox directory, whatever the file name says.
+            new SandboxFileManager().writeFile(fileName, stream -> {
+                try {
+                    log.writeTo(Channels.newChannel(stream), fluidTypes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            logger.error("Failed to write the fluid audit log to {}", fileName, e);
+            return "Failed to write the fluid audit log: " + e.getCause().getMessage();
+        }
+        return "Wrote " + log.getSize() + " of " + log.getRecordedCount() + " recorded fluid operations to " + fileName;
+    }
+}
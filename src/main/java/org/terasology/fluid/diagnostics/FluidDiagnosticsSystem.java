@@ -0,0 +1,210 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.event.internal.EventSystem;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.In;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.fluid.event.FluidsMixedInInventory;
+import org.terasology.fluid.system.FluidEventGate;
+import org.terasology.fluid.system.FluidManager;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Provides console commands to measure fluid performance and inspect the fluid state of a running server, without
+ * attaching a profiler.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class FluidDiagnosticsSystem extends BaseComponentSystem {
+    private static final int MAX_BENCHMARK_TICKS = 1000;
+    private static final int MAX_BENCHMARK_OPERATIONS = 10000;
+    private static final int MAX_BENCHMARK_CONTAINERS = 10000;
+    /** The most operations a benchmark may run in total, as the server doesn't tick while it runs */
+    private static final long MAX_BENCHMARK_TOTAL_OPERATIONS = 1_000_000;
+    private static final int DEFAULT_LARGEST_COUNT = 5;
+
+    @In
+    private EntityManager entityManager;
+
+    @In
+    private EventSystem eventSystem;
+
+    @In
+    private FluidEventGate fluidEventGate;
+
+    @In
+    private FluidManager fluidManager;
+
+    @In
+    private FluidLedger fluidLedger;
+
+    @In
+    private Time time;
+
+    /** Whether a benchmark is running, so that its operations don't count towards the event rates */
+    private boolean benchmarkRunning;
+    private long volumeChangeCount;
+    private long mixCount;
+    /** The counts and game time when the statistics were last printed, to report the rates since then */
+    private long lastVolumeChangeCount;
+    private long lastMixCount;
+    private long lastStatsTime = -1;
+
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void countVolumeChange(FluidVolumeChangedInInventory event, EntityRef container) {
+        if (!benchmarkRunning) {
+            volumeChangeCount++;
+        }
+    }
+
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void countMix(FluidsMixedInInventory event, EntityRef container) {
+        if (!benchmarkRunning) {
+            mixCount++;
+        }
+    }
+
+    @Command(shortDescription = "Measures the throughput of fluid operations",
+            helpText = "Runs a randomized workload of fluid operations against temporary containers, back to back for the "
+                    + "given number of ticks, and prints the measurements. The containers are destroyed afterwards. The "
+                    + "server doesn't tick while the benchmark runs, so keep it short on a live server.",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidBenchmark(@CommandParam(value = "ticks", required = false) Integer ticks,
+                                 @CommandParam(value = "operationsPerTick", required = false) Integer operationsPerTick,
+                                 @CommandParam(value = "containers", required = false) Integer containers) {
+        int tickCount = ticks != null ? ticks : 100;
+        int operationCount = operationsPerTick != null ? operationsPerTick : 1000;
+        int containerCount = containers != null ? containers : 100;
+        if (tickCount <= 0 || tickCount > MAX_BENCHMARK_TICKS) {
+            return "Ticks must be between 1 and " + MAX_BENCHMARK_TICKS + ".";
+        }
+        if (operationCount <= 0 || operationCount > MAX_BENCHMARK_OPERATIONS) {
+            return "Operations per tick must be between 1 and " + MAX_BENCHMARK_OPERATIONS + ".";
+        }
+        if (containerCount <= 0 || containerCount > MAX_BENCHMARK_CONTAINERS) {
+            return "Containers must be between 1 and " + MAX_BENCHMARK_CONTAINERS + ".";
+        }
+        if ((long) tickCount * operationCount > MAX_BENCHMARK_TOTAL_OPERATIONS) {
+            return "Ticks times operations per tick must be at most " + MAX_BENCHMARK_TOTAL_OPERATIONS + ".";
+        }
+
+        FluidLoadGenerator generator = new FluidLoadGenerator(entityManager, eventSystem, fluidEventGate, fluidManager,
+                System.nanoTime());
+        generator.setContainers(containerCount, 4, 1000f, 0.05f);
+        FluidLoadReport report;
+        long elapsed;
+        benchmarkRunning = true;
+        try {
+            generator.setUp();
+            long start = System.nanoTime();
+            report = generator.run(tickCount, operationCount, 0);
+            elapsed = System.nanoTime() - start;
+        } finally {
+            generator.tearDown();
+            benchmarkRunning = false;
+        }
+        if (report.getVetoTargetedOperations() > 0 && report.getVetoedOperations() == 0) {
+            return "Benchmark invalid: " + report.getVetoTargetedOperations() + " operations targeted vetoing containers, "
+                    + "but none were vetoed.";
+        }
+        double operationsPerSecond = elapsed > 0 ? report.getOperations() * 1_000_000_000.0 / elapsed : 0;
+        return String.format("%.0f ops/sec: %s", operationsPerSecond, report);
+    }
+
+    @Command(shortDescription = "Prints statistics about the fluids in the world",
+            helpText = "Prints the number of fluid inventories and fluid slot entities, the total volume of each fluid, "
+                    + "the rate of fluid events since the statistics were last printed, and the fluid inventories "
+                    + "holding the most fluid.",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidStats(@CommandParam(value = "largest", required = false) Integer largest) {
+        int largestCount = largest != null ? Math.max(0, largest) : DEFAULT_LARGEST_COUNT;
+        StringBuilder result = new StringBuilder();
+        result.append(entityManager.getCountOfEntitiesWith(FluidInventoryComponent.class)).append(" fluid inventories, ")
+                .append(entityManager.getCountOfEntitiesWith(FluidComponent.class)).append(" fluid slot entities, ")
+                .append(fluidLedger.getDivergenceCount()).append(" ledger divergences");
+
+        for (Map.Entry<String, Double> total : new TreeMap<>(fluidLedger.getTotalVolumes()).entrySet()) {
+            result.append(String.format("%n  %s: %.1f l", total.getKey(), total.getValue()));
+        }
+
+        long now = time.getGameTimeInMs();
+        if (lastStatsTime >= 0 && now > lastStatsTime) {
+            double seconds = (now - lastStatsTime) / 1000.0;
+            result.append(String.format("%nSince last time (%.1f s): %.1f volume changes/s, %.1f mixes/s", seconds,
+                    (volumeChangeCount - lastVolumeChangeCount) / seconds, (mixCount - lastMixCount) / seconds));
+        } else {
+            result.append(String.format("%n%d volume changes and %d mixes so far; run again for rates", volumeChangeCount, mixCount));
+        }
+        lastStatsTime = now;
+        lastVolumeChangeCount = volumeChangeCount;
+        lastMixCount = mixCount;
+
+        if (largestCount > 0) {
+            result.append(String.format("%nLargest fluid inventories:"));
+            for (ContainerVolume container : findLargest(largestCount)) {
+                result.append(String.format("%n  %s: %.1f l in %d slots", container.container, container.volume, container.slotCount));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Finds the fluid inventories holding the most fluid, keeping only as many as needed while scanning.
+     *
+     * @param count The number of fluid inventories to find
+     * @return      The fluid inventories, largest first
+     */
+    private List<ContainerVolume> findLargest(int count) {
+        Comparator<ContainerVolume> byVolume = Comparator.comparingDouble(container -> container.volume);
+        PriorityQueue<ContainerVolume> largest = new PriorityQueue<>(count + 1, byVolume);
+        for (EntityRef container : entityManager.getEntitiesWith(FluidInventoryComponent.class)) {
+            FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+            double volume = 0;
+            for (EntityRef fluidEntity : fluidInventory.fluidSlots) {
+                FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+                if (fluid != null) {
+                    volume += fluid.volume;
+                }
+            }
+            if (largest.size() < count || volume > largest.peek().volume) {
+                largest.add(new ContainerVolume(container, volume, fluidInventory.fluidSlots.size()));
+                if (largest.size() > count) {
+                    largest.poll();
+                }
+            }
+        }
+        List<ContainerVolume> result = new ArrayList<>(largest);
+        result.sort(byVolume.reversed());
+        return result;
+    }
+
+    private static final class ContainerVolume {
+        private final EntityRef container;
+        private final double volume;
+        private final int slotCount;
+
+        private ContainerVolume(EntityRef container, double volume, int slotCount) {
+            this.container = container;
+            this.volume = volume;
+            this.slotCount = slotCount;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import java.util.Map;
+
+/**
+ * Keeps a running total of the fluid held in all active fluid inventories, updated on every change rather than by
+ * scanning, and checks the fluid inventories against it over time to find fluid created or destroyed by mistake.
+ */
+public interface FluidLedger {
+    /**
+     * Accessor function that returns the total volume of a fluid held in active fluid inventories.
+     *
+     * @param fluidType The fluid type
+     * @return          The total volume, in litres
+     */
+    double getTotalVolume(String fluidType);
+
+    /**
+     * Accessor function that returns the total volume of every fluid held in active fluid inventories.
+     *
+     * @return The total volumes in litres, by fluid type
+     */
+    Map<String, Double> getTotalVolumes();
+
+    /**
+     * Accessor function that returns the number of active fluid inventories tracked.
+     *
+     * @return The number of fluid inventories
+     */
+    int getContainerCount();
+
+    /**
+     * Accessor function that returns the number of divergences between the ledger and the fluid inventories found
+     * since the game started.
+     *
+     * @return The number of divergences
+     */
+    long getDivergenceCount();
+}
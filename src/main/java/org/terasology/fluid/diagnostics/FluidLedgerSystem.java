@@ -0,0 +1,255 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.fluid.system.FluidUtils;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains the fluid ledger from fluid volume change events and the activation and deactivation of fluid inventories.
+ * <p>
+ * Besides the global totals, the ledger keeps what each slot should hold according to the events. A few fluid
+ * inventories are compared with their actual contents every update, going round all of them in turn, so that fluid
+ * changed without an event, or events that don't match the change, are logged without ever scanning the world at once.
+ * A divergence is logged once, after which the ledger adopts the actual contents.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidLedger.class)
+public class FluidLedgerSystem extends BaseComponentSystem implements FluidLedger, UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(FluidLedgerSystem.class);
+
+    /** The number of fluid inventories checked against the ledger per update */
+    private static final int CHECKS_PER_UPDATE = 8;
+
+    private Map<String, Double> totalVolumes = new HashMap<>();
+    private Map<EntityRef, ContainerRecord> records = new HashMap<>();
+    /** The tracked fluid inventories, in the order they are checked */
+    private List<ContainerRecord> checkOrder = new ArrayList<>();
+    private int nextCheck;
+    private long divergenceCount;
+
+    @Override
+    public void shutdown() {
+        totalVolumes.clear();
+        records.clear();
+        checkOrder.clear();
+    }
+
+    @Override
+    public double getTotalVolume(String fluidType) {
+        return totalVolumes.getOrDefault(fluidType, 0.0);
+    }
+
+    @Override
+    public Map<String, Double> getTotalVolumes() {
+        return Collections.unmodifiableMap(totalVolumes);
+    }
+
+    @Override
+    public int getContainerCount() {
+        return records.size();
+    }
+
+    @Override
+    public long getDivergenceCount() {
+        return divergenceCount;
+    }
+
+    /**
+     * Adds the contents of a fluid inventory to the ledger when it becomes active.
+     *
+     * @param event     Event that indicates the activation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerActivated(OnActivatedComponent event, EntityRef container) {
+        removeRecord(container);
+        ContainerRecord record = new ContainerRecord(container);
+        record.readActual(container.getComponent(FluidInventoryComponent.class));
+        for (int slot = 0; slot < record.fluidTypes.length; slot++) {
+            addToTotal(record.fluidTypes[slot], record.volumes[slot]);
+        }
+        record.position = checkOrder.size();
+        checkOrder.add(record);
+        records.put(container, record);
+    }
+
+    /**
+     * Takes the contents of a fluid inventory out of the ledger when it is unloaded or destroyed.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        removeRecord(container);
+    }
+
+    /**
+     * Applies a change of fluid volume to the ledger.
+     *
+     * @param event     Event that indicates the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onFluidVolumeChanged(FluidVolumeChangedInInventory event, EntityRef container) {
+        ContainerRecord record = records.get(container);
+        if (record == null) {
+            return;
+        }
+        int slot = event.getSlot();
+        record.ensureSlots(slot + 1);
+        String fluidType = event.getFluidType();
+
+        // The slot should hold what the event says it held before; anything else means fluid changed unannounced.
+        String recordedType = record.fluidTypes[slot];
+        float recordedVolume = recordedType == null || recordedType.equals(fluidType) ? record.volumes[slot] : 0;
+        if (!isSame(recordedVolume, event.getVolumeBefore())) {
+            reportDivergence(container, slot, recordedType, record.volumes[slot], fluidType, event.getVolumeBefore(),
+                    "before a change");
+        }
+        if (recordedType != null && !recordedType.equals(fluidType) && event.getVolumeAfter() > 0) {
+            // A different fluid replaces the recorded one without the recorded one having been removed.
+            addToTotal(recordedType, -record.volumes[slot]);
+            record.volumes[slot] = 0;
+        }
+
+        addToTotal(fluidType, event.getVolumeAfter() - event.getVolumeBefore());
+        if (event.getVolumeAfter() > 0) {
+            record.fluidTypes[slot] = fluidType;
+            record.volumes[slot] = event.getVolumeAfter();
+        } else if (fluidType.equals(record.fluidTypes[slot])) {
+            record.fluidTypes[slot] = null;
+            record.volumes[slot] = 0;
+        }
+    }
+
+    /**
+     * Checks the next few fluid inventories against the ledger.
+     *
+     * @param delta The time passed since the last update, in seconds
+     */
+    @Override
+    public void update(float delta) {
+        int checks = Math.min(CHECKS_PER_UPDATE, checkOrder.size());
+        for (int i = 0; i < checks; i++) {
+            if (nextCheck >= checkOrder.size()) {
+                nextCheck = 0;
+            }
+            check(checkOrder.get(nextCheck++));
+        }
+    }
+
+    private void check(ContainerRecord record) {
+        FluidInventoryComponent fluidInventory = record.container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            return;
+        }
+        ContainerRecord actual = new ContainerRecord(record.container);
+        actual.readActual(fluidInventory);
+        int slotCount = Math.max(actual.fluidTypes.length, record.fluidTypes.length);
+        actual.ensureSlots(slotCount);
+        record.ensureSlots(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            String recordedType = record.fluidTypes[slot];
+            String actualType = actual.fluidTypes[slot];
+            if (Objects.equals(recordedType, actualType) && isSame(record.volumes[slot], actual.volumes[slot])) {
+                continue;
+            }
+            reportDivergence(record.container, slot, recordedType, record.volumes[slot], actualType, actual.volumes[slot],
+                    "in a periodic check");
+            addToTotal(recordedType, -record.volumes[slot]);
+            addToTotal(actualType, actual.volumes[slot]);
+            record.fluidTypes[slot] = actualType;
+            record.volumes[slot] = actual.volumes[slot];
+        }
+    }
+
+    private void reportDivergence(EntityRef container, int slot, String recordedType, float recordedVolume, String actualType,
+                                  float actualVolume, String when) {
+        divergenceCount++;
+        logger.warn("Fluid ledger diverged {} on container {} slot {}: expected {} of {}, found {} of {}", when,
+                container.getId(), slot, recordedVolume, recordedType, actualVolume, actualType);
+    }
+
+    private void removeRecord(EntityRef container) {
+        ContainerRecord record = records.remove(container);
+        if (record == null) {
+            return;
+        }
+        for (int slot = 0; slot < record.fluidTypes.length; slot++) {
+            addToTotal(record.fluidTypes[slot], -record.volumes[slot]);
+        }
+        // Swap the last fluid inventory into the freed position, to keep removal cheap.
+        ContainerRecord last = checkOrder.remove(checkOrder.size() - 1);
+        if (last != record) {
+            last.position = record.position;
+            checkOrder.set(record.position, last);
+        }
+    }
+
+    private void addToTotal(String fluidType, double volume) {
+        if (fluidType != null && volume != 0) {
+            totalVolumes.merge(fluidType, volume, Double::sum);
+        }
+    }
+
+    private static boolean isSame(float volume, float otherVolume) {
+        return Math.abs(volume - otherVolume) <= FluidUtils.VOLUME_EPSILON;
+    }
+
+    /**
+     * What the slots of one fluid inventory hold according to the ledger.
+     */
+    private static final class ContainerRecord {
+        private final EntityRef container;
+        private String[] fluidTypes = new String[0];
+        private float[] volumes = new float[0];
+        private int position;
+
+        private ContainerRecord(EntityRef container) {
+            this.container = container;
+        }
+
+        private void readActual(FluidInventoryComponent fluidInventory) {
+            ensureSlots(fluidInventory.fluidSlots.size());
+            int slot = 0;
+            for (EntityRef fluidEntity : fluidInventory.fluidSlots) {
+                FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+                if (fluid != null) {
+                    fluidTypes[slot] = fluid.fluidType;
+                    volumes[slot] = fluid.volume;
+                }
+                slot++;
+            }
+        }
+
+        private void ensureSlots(int slotCount) {
+            if (slotCount > fluidTypes.length) {
+                fluidTypes = Arrays.copyOf(fluidTypes, slotCount);
+                volumes = Arrays.copyOf(volumes, slotCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.event.internal.EventSystem;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.BeforeFluidPutInInventory;
+import org.terasology.fluid.event.BeforeFluidRemovedFromInventory;
+import org.terasology.fluid.system.FluidEventGate;
+import org.terasology.fluid.system.FluidManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives a randomized workload of fluid operations against a set of generated containers, to measure how many fluid
+ * operations fit in a tick. It only depends on an {@link EntityManager}, an {@link EventSystem}, a
+ * {@link FluidEventGate} and a {@link FluidManager}, so it can run headless against an in-memory entity system as well
+ * as inside a running game.
+ * <p>
+ * Each tick performs a fixed number of operations, chosen between adds, removes, moves and operations on containers
+ * whose handlers veto everything, and measures the time spent. Ticks are paced to the target tick rate, so that
+ * anything else running on the same engine gets its usual share of time.
+ * <p>
+ * The containers of the veto workload are only vetoed while the generator is set up, as it registers its
+ * {@link FluidLoadVetoSystem} in {@link #setUp()} and unregisters it in {@link #tearDown()}. The handlers are also
+ * declared to the event gate, which only discovers the handlers of registered component systems, as the fluid manager
+ * would otherwise never send the veto events to those containers.
+ */
+public class FluidLoadGenerator {
+    private static final String[] FLUID_TYPES = {"Fluid:LoadTestA", "Fluid:LoadTestB"};
+
+    private final EntityManager entityManager;
+    private final EventSystem eventSystem;
+    private final FluidEventGate fluidEventGate;
+    private final FluidManager fluidManager;
+    private final Random random;
+    private final FluidLoadVetoSystem vetoSystem = new FluidLoadVetoSystem();
+    /** Returns the bytes allocated so far by the current thread, or null if allocations aren't measured */
+    private LongSupplier allocationCounter;
+
+    private int containerCount = 100;
+    private int slotsPerContainer = 4;
+    private float slotVolume = 1000f;
+    private float vetoFraction = 0.05f;
+    private float addWeight = 1f;
+    private float removeWeight = 1f;
+    private float moveWeight = 2f;
+
+    private List<EntityRef> containers = new ArrayList<>();
+    private List<EntityRef> vetoContainers = new ArrayList<>();
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param entityManager The entity manager to create the containers with
+     * @param eventSystem    The event system to register the veto handlers with while set up
+     * @param fluidEventGate The event gate to declare the veto handlers to
+     * @param fluidManager   The fluid manager to drive
+     * @param seed           The seed of the random workload, so that runs can be repeated
+     */
+    public FluidLoadGenerator(EntityManager entityManager, EventSystem eventSystem, FluidEventGate fluidEventGate,
+                              FluidManager fluidManager, long seed) {
+        this.entityManager = entityManager;
+        this.eventSystem = eventSystem;
+        this.fluidEventGate = fluidEventGate;
+        this.fluidManager = fluidManager;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets the shape of the generated containers. Takes effect on the next {@link #setUp()}.
+     *
+     * @param count        The number of containers
+     * @param slots        The number of fluid slots per container
+     * @param volume       The maximum volume of each slot
+     * @param vetoFraction The fraction of additional containers whose handlers veto every operation
+     */
+    public void setContainers(int count, int slots, float volume, float vetoFraction) {
+        this.containerCount = count;
+        this.slotsPerContainer = slots;
+        this.slotVolume = volume;
+        this.vetoFraction = vetoFraction;
+    }
+
+    /**
+     * Sets the relative frequency of each kind of operation.
+     *
+     * @param add    The weight of {@link FluidManager#addFluid} operations
+     * @param remove The weight of {@link FluidManager#removeFluid} operations
+     * @param move   The weight of {@link FluidManager#moveFluid} operations
+     */
+    public void setOperationWeights(float add, float remove, float move) {
+        this.addWeight = add;
+        this.removeWeight = remove;
+        this.moveWeight = move;
+    }
+
+    /**
+     * Sets how allocations are measured. The module sandbox doesn't give access to the JVM management API, so the
+     * allocation rate is only reported when a harness running outside of it supplies a counter, for example one backed
+     * by {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}.
+     *
+     * @param allocationCounter Returns the bytes allocated so far by the current thread, or null to not measure them
+     */
+    public void setAllocationCounter(LongSupplier allocationCounter) {
+        this.allocationCounter = allocationCounter;
+    }
+
+    /**
+     * Creates the containers the workload runs against, and registers the handlers vetoing the veto workload.
+     */
+    public void setUp() {
+        tearDown();
+        for (int i = 0; i < containerCount; i++) {
+            containers.add(entityManager.create(new FluidInventoryComponent(slotsPerContainer, slotVolume)));
+        }
+        int vetoCount = Math.round(containerCount * vetoFraction);
+        for (int i = 0; i < vetoCount; i++) {
+            vetoContainers.add(entityManager.create(new FluidInventoryComponent(slotsPerContainer, slotVolume),
+                    new FluidLoadVetoComponent()));
+        }
+        if (!vetoContainers.isEmpty()) {
+            eventSystem.registerEventHandler(vetoSystem);
+            fluidEventGate.registerVetoReceiver(BeforeFluidPutInInventory.class, FluidLoadVetoComponent.class);
+            fluidEventGate.registerVetoReceiver(BeforeFluidRemovedFromInventory.class, FluidLoadVetoComponent.class);
+        }
+    }
+
+    /**
+     * Destroys the containers created by {@link #setUp()}, together with the fluids they hold, and unregisters the
+     * veto handlers.
+     */
+    public void tearDown() {
+        if (!vetoContainers.isEmpty()) {
+            eventSystem.unregisterObject(vetoSystem);
+        }
+        for (EntityRef container : containers) {
+            container.destroy();
+        }
+        for (EntityRef container : vetoContainers) {
+            container.destroy();
+        }
+        containers.clear();
+        vetoContainers.clear();
+    }
+
+    /**
+     * Runs the workload.
+     *
+     * @param ticks             The number of ticks to run
+     * @param operationsPerTick The number of fluid operations per tick
+     * @param ticksPerSecond    The target tick rate, or 0 to run ticks back to back
+     * @return The measurements of the run
+     */
+    public FluidLoadReport run(int ticks, int operationsPerTick, float ticksPerSecond) {
+        if (containers.isEmpty()) {
+            setUp();
+        }
+        long[] tickNanos = new long[ticks];
+        long operations = 0;
+        long successful = 0;
+        long vetoTargeted = 0;
+        long vetoedBefore = vetoSystem.getVetoCount();
+        long tickInterval = ticksPerSecond > 0 ? (long) (1_000_000_000L / ticksPerSecond) : 0;
+        long allocatedBefore = allocatedBytes();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operationsPerTick; i++) {
+                operations++;
+                if (!vetoContainers.isEmpty() && random.nextFloat() < vetoFraction) {
+                    vetoTargeted++;
+                    runVetoedOperation();
+                } else if (runOperation()) {
+                    successful++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            tickNanos[tick] = elapsed;
+
+            if (elapsed < tickInterval) {
+                sleep(tickInterval - elapsed);
+            }
+        }
+
+        long allocatedAfter = allocatedBytes();
+        long allocatedPerTick = allocatedBefore < 0 || allocatedAfter < 0 || ticks == 0 ? -1 : (allocatedAfter - allocatedBefore) / ticks;
+
+        Arrays.sort(tickNanos);
+        return new FluidLoadReport(ticks, operations, successful, vetoTargeted, vetoSystem.getVetoCount() - vetoedBefore,
+                percentileMillis(tickNanos, 0.5), percentileMillis(tickNanos, 0.99), percentileMillis(tickNanos, 1),
+                allocatedPerTick,
+                entityManager.getCountOfEntitiesWith(FluidInventoryComponent.class),
+                entityManager.getCountOfEntitiesWith(FluidComponent.class));
+    }
+
+    /**
+     * Performs a single random operation on the regular containers.
+     *
+     * @return Whether the operation changed some fluid volume
+     */
+    private boolean runOperation() {
+        EntityRef instigator = EntityRef.NULL;
+        String fluidType = FLUID_TYPES[random.nextInt(FLUID_TYPES.length)];
+        float volume = random.nextFloat() * slotVolume / 4;
+        EntityRef container = randomContainer();
+        int slot = random.nextInt(slotsPerContainer);
+
+        float choice = random.nextFloat() * (addWeight + removeWeight + moveWeight);
+        if (choice < addWeight) {
+            return fluidManager.addFluid(instigator, container, slot, fluidType, volume);
+        } else if (choice < addWeight + removeWeight) {
+            return fluidManager.removeFluid(instigator, container, slot, fluidType, volume);
+        } else {
+            return fluidManager.moveFluid(instigator, container, randomContainer(), slot, fluidType,
+                    random.nextInt(slotsPerContainer), volume) > 0;
+        }
+    }
+
+    /**
+     * Performs a single random operation on a container whose handlers veto everything.
+     */
+    private void runVetoedOperation() {
+        EntityRef container = vetoContainers.get(random.nextInt(vetoContainers.size()));
+        String fluidType = FLUID_TYPES[random.nextInt(FLUID_TYPES.length)];
+        fluidManager.addFluid(EntityRef.NULL, container, random.nextInt(slotsPerContainer), fluidType, slotVolume / 4);
+    }
+
+    private EntityRef randomContainer() {
+        return containers.get(random.nextInt(containers.size()));
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+    }
+
+    /**
+     * Measures the bytes allocated so far by the current thread, if an allocation counter was supplied.
+     *
+     * @return The allocated bytes, or -1 if not measured
+     */
+    private long allocatedBytes() {
+        return allocationCounter != null ? allocationCounter.getAsLong() : -1;
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+/**
+ * The measurements taken during one run of the {@link FluidLoadGenerator}.
+ */
+public final class FluidLoadReport {
+    private final int ticks;
+    private final long operations;
+    private final long successfulOperations;
+    private final long vetoTargetedOperations;
+    private final long vetoedOperations;
+    private final double medianTickMillis;
+    private final double p99TickMillis;
+    private final double maxTickMillis;
+    private final long allocatedBytesPerTick;
+    private final int containerCount;
+    private final int fluidEntityCount;
+
+    FluidLoadReport(int ticks, long operations, long successfulOperations, long vetoTargetedOperations,
+                    long vetoedOperations, double medianTickMillis, double p99TickMillis, double maxTickMillis,
+                    long allocatedBytesPerTick, int containerCount, int fluidEntityCount) {
+        this.ticks = ticks;
+        this.operations = operations;
+        this.successfulOperations = successfulOperations;
+        this.vetoTargetedOperations = vetoTargetedOperations;
+        this.vetoedOperations = vetoedOperations;
+        this.medianTickMillis = medianTickMillis;
+        this.p99TickMillis = p99TickMillis;
+        this.maxTickMillis = maxTickMillis;
+        this.allocatedBytesPerTick = allocatedBytesPerTick;
+        this.containerCount = containerCount;
+        this.fluidEntityCount = fluidEntityCount;
+    }
+
+    /**
+     * Accessor function that returns the number of ticks that were run.
+     *
+     * @return The number of ticks that were run
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Accessor function that returns the number of operations that were attempted.
+     *
+     * @return The number of operations that were attempted
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Accessor function that returns the number of operations that changed some fluid volume.
+     *
+     * @return The number of operations that changed some fluid volume
+     */
+    public long getSuccessfulOperations() {
+        return successfulOperations;
+    }
+
+    /**
+     * Accessor function that returns the number of operations directed at containers whose handlers veto everything.
+     *
+     * @return The number of operations directed at containers whose handlers veto everything
+     */
+    public long getVetoTargetedOperations() {
+        return vetoTargetedOperations;
+    }
+
+    /**
+     * Accessor function that returns the number of operations a veto handler refused.
+     *
+     * @return The number of operations a veto handler refused
+     */
+    public long getVetoedOperations() {
+        return vetoedOperations;
+    }
+
+    /**
+     * Accessor function that returns the average number of operations attempted per tick.
+     *
+     * @return The average number of operations attempted per tick
+     */
+    public double getOperationsPerTick() {
+        return ticks == 0 ? 0 : (double) operations / ticks;
+    }
+
+    /**
+     * Accessor function that returns the median time spent on fluid operations in a tick, in milliseconds.
+     *
+     * @return The median time spent on fluid operations in a tick, in milliseconds
+     */
+    public double getMedianTickMillis() {
+        return medianTickMillis;
+    }
+
+    /**
+     * Accessor function that returns the 99th percentile of the time spent on fluid operations in a tick, in milliseconds.
+     *
+     * @return The 99th percentile of the time spent on fluid operations in a tick, in milliseconds
+     */
+    public double getP99TickMillis() {
+        return p99TickMillis;
+    }
+
+    /**
+     * Accessor function that returns the longest time spent on fluid operations in a tick, in milliseconds.
+     *
+     * @return The longest time spent on fluid operations in a tick, in milliseconds
+     */
+    public double getMaxTickMillis() {
+        return maxTickMillis;
+    }
+
+    /**
+     * Accessor function that returns the average number of bytes allocated per tick, or -1 if not measured.
+     *
+     * @return The average number of bytes allocated per tick, or -1 if not measured
+     */
+    public long getAllocatedBytesPerTick() {
+        return allocatedBytesPerTick;
+    }
+
+    /**
+     * Accessor function that returns the number of entities with a fluid inventory at the end of the run.
+     *
+     * @return The number of entities with a fluid inventory at the end of the run
+     */
+    public int getContainerCount() {
+        return containerCount;
+    }
+
+    /**
+     * Accessor function that returns the number of fluid slot entities at the end of the run.
+     *
+     * @return The number of fluid slot entities at the end of the run
+     */
+    public int getFluidEntityCount() {
+        return fluidEntityCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ticks, %.1f ops/tick (%d succeeded, %d vetoed), tick cost p50 %.3f ms, p99 %.3f ms, "
+                        + "max %.3f ms, %s, %d containers, %d fluid entities",
+                ticks, getOperationsPerTick(), successfulOperations, vetoedOperations, medianTickMillis, p99TickMillis,
+                maxTickMillis,
+                allocatedBytesPerTick < 0 ? "allocation rate unavailable" : allocatedBytesPerTick + " B/tick allocated",
+                containerCount, fluidEntityCount);
+    }
+}
@@ -0,0 +1,12 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.terasology.gestalt.entitysystem.component.EmptyComponent;
+
+/**
+ * Marks a fluid inventory created by the {@link FluidLoadGenerator} whose fluid operations are always vetoed, used to
+ * measure the cost of the veto path.
+ */
+public class FluidLoadVetoComponent extends EmptyComponent<FluidLoadVetoComponent> {
+}
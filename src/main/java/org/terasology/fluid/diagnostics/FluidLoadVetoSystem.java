@@ -0,0 +1,38 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.fluid.event.BeforeFluidPutInInventory;
+import org.terasology.fluid.event.BeforeFluidRemovedFromInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+/**
+ * Vetoes every fluid operation on the containers the {@link FluidLoadGenerator} marked for the veto workload. It isn't
+ * a registered system: the generator registers it with the event system only while it is set up.
+ */
+public class FluidLoadVetoSystem extends BaseComponentSystem {
+    private long vetoCount;
+
+    @ReceiveEvent(components = FluidLoadVetoComponent.class)
+    public void vetoFluidPut(BeforeFluidPutInInventory event, EntityRef container) {
+        event.consume();
+        vetoCount++;
+    }
+
+    @ReceiveEvent(components = FluidLoadVetoComponent.class)
+    public void vetoFluidRemoval(BeforeFluidRemovedFromInventory event, EntityRef container) {
+        event.consume();
+        vetoCount++;
+    }
+
+    /**
+     * Accessor function that returns the number of fluid operations vetoed so far.
+     *
+     * @return The number of fluid operations vetoed so far
+     */
+    public long getVetoCount() {
+        return vetoCount;
+    }
+}
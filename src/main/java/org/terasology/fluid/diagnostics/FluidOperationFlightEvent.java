@@ -0,0 +1,90 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * A Java Flight Recorder event covering one operation of the fluid manager. Disabled by default; enable
+ * {@code org.terasology.fluid.Operation} in the recording settings to capture it.
+ */
+@Name("org.terasology.fluid.Operation")
+@Label("Fluid Operation")
+@Description("An add, remove or move performed by the fluid manager")
+@Category({"Terasology", "Fluid"})
+@Enabled(false)
+@StackTrace(false)
+public class FluidOperationFlightEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Container")
+    @Description("The id of the container the operation was performed on, or the source of a move")
+    long container;
+
+    @Label("Slot")
+    int slot;
+
+    @Label("Target Container")
+    @Description("The id of the destination of a move")
+    long targetContainer;
+
+    @Label("Target Slot")
+    int targetSlot;
+
+    @Label("Fluid Type")
+    String fluidType;
+
+    @Label("Requested Volume")
+    float requestedVolume;
+
+    @Label("Moved Volume")
+    @Description("The volume that changed hands, for moves")
+    float movedVolume;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Vetoed")
+    @Description("Whether a veto handler refused the operation")
+    boolean vetoed;
+
+    /**
+     * Ends the timing of the operation and commits the event, if it is enabled in the current recording.
+     *
+     * @param operationName   The name of the fluid manager operation
+     * @param source          The container the operation was performed on, or the source of a move
+     * @param sourceSlot      The slot of the container, or -1 if the operation could use any slot
+     * @param target          The destination of a move, or {@link EntityRef#NULL}
+     * @param destinationSlot The slot of the destination, or -1
+     * @param fluid           The type of fluid involved
+     * @param requested       The volume the caller asked for
+     * @param moved           The volume that changed hands, for moves
+     * @param success         Whether the operation succeeded
+     * @param refused         Whether a veto handler refused the operation
+     */
+    public void end(String operationName, EntityRef source, int sourceSlot, EntityRef target, int destinationSlot,
+                    String fluid, float requested, float moved, boolean success, boolean refused) {
+        if (!shouldCommit()) {
+            return;
+        }
+        operation = operationName;
+        container = source.getId();
+        slot = sourceSlot;
+        targetContainer = target.getId();
+        targetSlot = destinationSlot;
+        fluidType = fluid;
+        requestedVolume = requested;
+        movedVolume = moved;
+        succeeded = success;
+        vetoed = refused;
+        commit();
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Times fluid operations for an external profiler. Each measurement is started by one of the {@code begin} methods,
+ * which returns an opaque token, and finished by passing that token to the matching {@code end} method. The default
+ * methods do nothing, so {@link #NONE} costs a virtual call per measurement.
+ */
+public interface FluidProfiler {
+    /**
+     * A profiler that measures nothing.
+     */
+    FluidProfiler NONE = new FluidProfiler() { };
+
+    /**
+     * Starts timing a fluid operation.
+     *
+     * @return The token to pass to {@link #endOperation}, which may be null
+     */
+    default Object beginOperation() {
+        return null;
+    }
+
+    /**
+     * Finishes timing a fluid operation.
+     *
+     * @param token           The token returned by {@link #beginOperation()}
+     * @param operation       The name of the fluid manager method
+     * @param container       The container acted upon, or the source of a move
+     * @param slot            The slot acted upon, or -1 if the operation isn't slot-specific
+     * @param target          The target container of a move, or {@link EntityRef#NULL}
+     * @param targetSlot      The target slot of a move, or -1
+     * @param fluidType       The type of fluid involved
+     * @param requestedVolume The volume the caller asked for
+     * @param movedVolume     The volume actually moved
+     * @param succeeded       Whether the operation succeeded
+     * @param vetoed          Whether a veto handler refused any part of the operation
+     */
+    default void endOperation(Object token, String operation, EntityRef container, int slot, EntityRef target, int targetSlot,
+                              String fluidType, float requestedVolume, float movedVolume, boolean succeeded, boolean vetoed) {
+    }
+
+    /**
+     * Starts timing a fluid container item being filled from or emptied into the world.
+     *
+     * @return The token to pass to {@link #endWorldInteraction}, which may be null
+     */
+    default Object beginWorldInteraction() {
+        return null;
+    }
+
+    /**
+     * Finishes timing a fluid container item being filled from or emptied into the world.
+     *
+     * @param token         The token returned by {@link #beginWorldInteraction()}
+     * @param interaction   The kind of interaction, "fill" or "empty"
+     * @param containerItem The fluid container item
+     * @param position      The position of the liquid block
+     * @param fluidType     The type of fluid involved
+     * @param volume        The volume of fluid taken from or placed into the block
+     */
+    default void endWorldInteraction(Object token, String interaction, EntityRef containerItem, Vector3ic position,
+                                     String fluidType, float volume) {
+    }
+
+    /**
+     * Starts timing the generation of a fluid texture.
+     *
+     * @return The token to pass to {@link #endAssetGeneration}, which may be null
+     */
+    default Object beginAssetGeneration() {
+        return null;
+    }
+
+    /**
+     * Finishes timing the generation of a fluid texture.
+     *
+     * @param token    The token returned by {@link #beginAssetGeneration()}
+     * @param assetUrn The URN of the generated texture
+     * @param width    The width of the generated texture, or 0 if nothing was generated
+     * @param height   The height of the generated texture, or 0 if nothing was generated
+     * @param success  Whether texture data was produced
+     */
+    default void endAssetGeneration(Object token, String assetUrn, int width, int height, boolean success) {
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.Share;
+
+/**
+ * Provides the {@link FluidProfiler} used by the fluid systems. It reports to the Java Flight Recorder when
+ * {@code jdk.jfr} can be loaded, and does nothing otherwise, e.g. when the module sandbox doesn't permit it.
+ */
+@RegisterSystem(RegisterMode.ALWAYS)
+@Share(FluidProfiler.class)
+public class FluidProfilerSystem extends BaseComponentSystem implements FluidProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(FluidProfilerSystem.class);
+
+    private static final String FLIGHT_RECORDER_CLASS = "jdk.jfr.Event";
+    private static final String FLIGHT_RECORDER_PROFILER_CLASS = "org.terasology.fluid.diagnostics.JfrFluidProfiler";
+
+    private FluidProfiler profiler = NONE;
+
+    @Override
+    public void initialise() {
+        profiler = loadFlightRecorderProfiler();
+    }
+
+    /**
+     * Instantiates the flight recorder profiler by name, so that nothing links against {@code jdk.jfr} unless it can be
+     * loaded.
+     *
+     * @return The flight recorder profiler, or {@link FluidProfiler#NONE} if it isn't available
+     */
+    private static FluidProfiler loadFlightRecorderProfiler() {
+        try {
+            Class.forName(FLIGHT_RECORDER_CLASS);
+            return Class.forName(FLIGHT_RECORDER_PROFILER_CLASS).asSubclass(FluidProfiler.class)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            logger.debug("Java Flight Recorder is not available, fluid operations won't be profiled", e);
+            return NONE;
+        }
+    }
+
+    @Override
+    public Object beginOperation() {
+        return profiler.beginOperation();
+    }
+
+    @Override
+    public void endOperation(Object token, String operation, EntityRef container, int slot, EntityRef target, int targetSlot,
+                             String fluidType, float requestedVolume, float movedVolume, boolean succeeded, boolean vetoed) {
+        profiler.endOperation(token, operation, container, slot, target, targetSlot, fluidType, requestedVolume, movedVolume,
+                succeeded, vetoed);
+    }
+
+    @Override
+    public Object beginWorldInteraction() {
+        return profiler.beginWorldInteraction();
+    }
+
+    @Override
+    public void endWorldInteraction(Object token, String interaction, EntityRef containerItem, Vector3ic position,
+                                    String fluidType, float volume) {
+        profiler.endWorldInteraction(token, interaction, containerItem, position, fluidType, volume);
+    }
+
+    @Override
+    public Object beginAssetGeneration() {
+        return profiler.beginAssetGeneration();
+    }
+
+    @Override
+    public void endAssetGeneration(Object token, String assetUrn, int width, int height, boolean success) {
+        profiler.endAssetGeneration(token, assetUrn, width, height, success);
+    }
+}
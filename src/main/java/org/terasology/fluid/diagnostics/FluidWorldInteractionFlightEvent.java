@@ -0,0 +1,70 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * A Java Flight Recorder event covering a fluid container item being filled from or emptied into the world. Disabled
+ * by default; enable {@code org.terasology.fluid.WorldInteraction} in the recording settings to capture it.
+ */
+@Name("org.terasology.fluid.WorldInteraction")
+@Label("Fluid World Interaction")
+@Description("A fluid container item filled from or emptied into a liquid block")
+@Category({"Terasology", "Fluid"})
+@Enabled(false)
+@StackTrace(false)
+public class FluidWorldInteractionFlightEvent extends Event {
+    @Label("Interaction")
+    String interaction;
+
+    @Label("Item")
+    long item;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Z")
+    int z;
+
+    @Label("Fluid Type")
+    String fluidType;
+
+    @Label("Volume")
+    @Description("The volume of fluid taken from or placed into the block")
+    float volume;
+
+    /**
+     * Ends the timing of the interaction and commits the event, if it is enabled in the current recording.
+     *
+     * @param interactionName The kind of interaction, "fill" or "empty"
+     * @param containerItem   The fluid container item
+     * @param position        The position of the liquid block
+     * @param fluid           The type of fluid involved
+     * @param amount          The volume of fluid taken from or placed into the block
+     */
+    public void end(String interactionName, EntityRef containerItem, Vector3ic position, String fluid, float amount) {
+        if (!shouldCommit()) {
+            return;
+        }
+        interaction = interactionName;
+        item = containerItem.getId();
+        x = position.x();
+        y = position.y();
+        z = position.z();
+        fluidType = fluid;
+        volume = amount;
+        commit();
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.diagnostics;
+
+import jdk.jfr.EventType;
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * A {@link FluidProfiler} reporting to the Java Flight Recorder. This is the only class outside the flight events
+ * themselves that refers to them, and it is only loaded by {@link FluidProfilerSystem} once {@code jdk.jfr} is known to
+ * be available.
+ * <p>
+ * The flight events are disabled unless a recording asks for them, so the profiler checks their event types first and
+ * returns a null token while they are disabled, leaving only that check on the hot path.
+ */
+final class JfrFluidProfiler implements FluidProfiler {
+    private final EventType operationType = EventType.getEventType(FluidOperationFlightEvent.class);
+    private final EventType worldInteractionType = EventType.getEventType(FluidWorldInteractionFlightEvent.class);
+    private final EventType assetGenerationType = EventType.getEventType(FluidAssetGenerationFlightEvent.class);
+
+    @Override
+    public Object beginOperation() {
+        if (!operationType.isEnabled()) {
+            return null;
+        }
+        FluidOperationFlightEvent flightEvent = new FluidOperationFlightEvent();
+        flightEvent.begin();
+        return flightEvent;
+    }
+
+    @Override
+    public void endOperation(Object token, String operation, EntityRef container, int slot, EntityRef target, int targetSlot,
+                             String fluidType, float requestedVolume, float movedVolume, boolean succeeded, boolean vetoed) {
+        if (token == null) {
+            return;
+        }
+        ((FluidOperationFlightEvent) token).end(operation, container, slot, target, targetSlot, fluidType, requestedVolume,
+                movedVolume, succeeded, vetoed);
+    }
+
+    @Override
+    public Object beginWorldInteraction() {
+        if (!worldInteractionType.isEnabled()) {
+            return null;
+        }
+        FluidWorldInteractionFlightEvent flightEvent = new FluidWorldInteractionFlightEvent();
+        flightEvent.begin();
+        return flightEvent;
+    }
+
+    @Override
+    public void endWorldInteraction(Object token, String interaction, EntityRef containerItem, Vector3ic position,
+                                    String fluidType, float volume) {
+        if (token == null) {
+            return;
+        }
+        ((FluidWorldInteractionFlightEvent) token).end(interaction, containerItem, position, fluidType, volume);
+    }
+
+    @Override
+    public Object beginAssetGeneration() {
+        if (!assetGenerationType.isEnabled()) {
+            return null;
+        }
+        FluidAssetGenerationFlightEvent flightEvent = new FluidAssetGenerationFlightEvent();
+        flightEvent.begin();
+        return flightEvent;
+    }
+
+    @Override
+    public void endAssetGeneration(Object token, String assetUrn, int width, int height, boolean success) {
+        if (token == null) {
+            return;
+        }
+        ((FluidAssetGenerationFlightEvent) token).end(assetUrn, width, height, success);
+    }
+}
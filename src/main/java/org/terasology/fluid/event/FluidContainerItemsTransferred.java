@@ -0,0 +1,119 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.event;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * This event indicates that the fluid container items of an item inventory were filled from, or emptied into, a fluid
+ * inventory slot in a single bulk operation. It is sent to the fluid inventory, once per operation.
+ */
+public class FluidContainerItemsTransferred implements Event {
+
+    /** The instigator of the action */
+    private EntityRef instigator;
+
+    /** The item inventory holding the fluid container items */
+    private EntityRef itemInventory;
+
+    /** The type of the fluid transferred */
+    private String fluidType;
+
+    /** The slot number of the fluid inventory slot the fluid was transferred from or to */
+    private int slot;
+
+    /** Whether the items were filled from the slot, rather than emptied into it */
+    private boolean filled;
+
+    /** The number of fluid container items changed */
+    private int itemCount;
+
+    /** The total volume of fluid transferred */
+    private float volume;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param instigator    The instigator of the action
+     * @param itemInventory The item inventory holding the fluid container items
+     * @param fluidType     The type of the fluid transferred
+     * @param slot          The slot number of the fluid inventory slot
+     * @param filled        Whether the items were filled from the slot, rather than emptied into it
+     * @param itemCount     The number of fluid container items changed
+     * @param volume        The total volume of fluid transferred
+     */
+    public FluidContainerItemsTransferred(EntityRef instigator, EntityRef itemInventory, String fluidType, int slot,
+                                          boolean filled, int itemCount, float volume) {
+        this.instigator = instigator;
+        this.itemInventory = itemInventory;
+        this.fluidType = fluidType;
+        this.slot = slot;
+        this.filled = filled;
+        this.itemCount = itemCount;
+        this.volume = volume;
+    }
+
+    /**
+     * Accessor function that returns the instigator of the transfer.
+     *
+     * @return The instigator of the event
+     */
+    public EntityRef getInstigator() {
+        return instigator;
+    }
+
+    /**
+     * Accessor function that returns the item inventory holding the fluid container items.
+     *
+     * @return The item inventory
+     */
+    public EntityRef getItemInventory() {
+        return itemInventory;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid transferred.
+     *
+     * @return The type of the fluid
+     */
+    public String getFluidType() {
+        return fluidType;
+    }
+
+    /**
+     * Accessor function that returns the slot number the fluid was transferred from or to.
+     *
+     * @return The slot number of the fluid inventory slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Accessor function that returns whether the items were filled from the slot, rather than emptied into it.
+     *
+     * @return Whether the items were filled
+     */
+    public boolean isFilled() {
+        return filled;
+    }
+
+    /**
+     * Accessor function that returns the number of fluid container items changed.
+     *
+     * @return The number of items
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Accessor function that returns the total volume of fluid transferred.
+     *
+     * @return The volume transferred
+     */
+    public float getVolume() {
+        return volume;
+    }
+}
@@ -0,0 +1,45 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.event;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.network.NetworkEvent;
+import org.terasology.engine.network.ServerEvent;
+
+/**
+ * Sent by a client to its own client entity, to have the slot entities of a fluid inventory it is viewing replicated
+ * to it for a while. Clients keep sending it as long as they view the fluid inventory.
+ * <p>
+ * The server only accepts events for entities owned by the sending client, which is why this is not sent to the fluid
+ * inventory itself.
+ */
+@ServerEvent
+public class FluidInterestEvent extends NetworkEvent {
+
+    /** The entity that houses the fluid inventory being viewed */
+    private EntityRef container = EntityRef.NULL;
+
+    /**
+     * Default constructor, for deserialization.
+     */
+    public FluidInterestEvent() {
+    }
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param container The entity that houses the fluid inventory being viewed
+     */
+    public FluidInterestEvent(EntityRef container) {
+        this.container = container;
+    }
+
+    /**
+     * Accessor function that returns the fluid inventory being viewed.
+     *
+     * @return The entity that houses the fluid inventory
+     */
+    public EntityRef getContainer() {
+        return container;
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.event;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * This event indicates that the volume of fluid in an inventory slot crossed one of the levels declared in the
+ * {@link org.terasology.fluid.component.FluidLevelTriggerComponent} of the entity.
+ */
+public class FluidLevelCrossed implements Event {
+
+    /** The instigator of the action */
+    private EntityRef instigator;
+
+    /** The type of the fluid whose volume was changed */
+    private String fluidType;
+
+    /** The slot number of the inventory slot whose level was crossed */
+    private int slot;
+
+    /** The level that was crossed, as a fraction of the maximum volume of the slot */
+    private float level;
+
+    /** Whether the level was reached from below, rather than left from above */
+    private boolean rising;
+
+    /** The volume of the fluid after the change */
+    private float volume;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param instigator The instigator of the action
+     * @param fluidType  The type of the fluid
+     * @param slot       The slot number whose level was crossed
+     * @param level      The level that was crossed
+     * @param rising     Whether the level was reached from below
+     * @param volume     The volume after the change
+     */
+    public FluidLevelCrossed(EntityRef instigator, String fluidType, int slot, float level, boolean rising, float volume) {
+        this.instigator = instigator;
+        this.fluidType = fluidType;
+        this.slot = slot;
+        this.level = level;
+        this.rising = rising;
+        this.volume = volume;
+    }
+
+    /**
+     * Accessor function that returns the instigator of the change in volume.
+     *
+     * @return The instigator of the event
+     */
+    public EntityRef getInstigator() {
+        return instigator;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid whose volume was changed.
+     *
+     * @return The type of the fluid whose volume was changed
+     */
+    public String getFluidType() {
+        return fluidType;
+    }
+
+    /**
+     * Accessor function that returns the slot number whose level was crossed.
+     *
+     * @return The slot number of the slot whose level was crossed
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Accessor function that returns the level that was crossed, as a fraction of the maximum volume of the slot.
+     *
+     * @return The level that was crossed, 0 standing for the slot holding any fluid
+     */
+    public float getLevel() {
+        return level;
+    }
+
+    /**
+     * Accessor function that returns whether the level was reached from below, rather than left from above.
+     *
+     * @return Whether the volume rose past the level
+     */
+    public boolean isRising() {
+        return rising;
+    }
+
+    /**
+     * Accessor function that returns the volume after the change.
+     *
+     * @return The volume after the change
+     */
+    public float getVolume() {
+        return volume;
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.event;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * This event indicates that two different fluids were mixed in an inventory slot and turned into a resulting fluid.
+ */
+public class FluidsMixedInInventory implements Event {
+
+    /** The instigator of the action */
+    private EntityRef instigator;
+
+    /** The type of the fluid that was moved into the slot */
+    private String addedFluid;
+
+    /** The type of the fluid that was already in the slot */
+    private String presentFluid;
+
+    /** The type of the fluid the mixture turned into */
+    private String resultFluid;
+
+    /** The slot number of the inventory slot in which the fluids were mixed */
+    private int slot;
+
+    /** The volume of the resulting fluid */
+    private float resultVolume;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param instigator   The instigator of the action
+     * @param addedFluid   The type of the fluid that was moved into the slot
+     * @param presentFluid The type of the fluid that was already in the slot
+     * @param resultFluid  The type of the fluid the mixture turned into
+     * @param slot         The slot number in which the fluids were mixed
+     * @param resultVolume The volume of the resulting fluid
+     */
+    public FluidsMixedInInventory(EntityRef instigator, String addedFluid, String presentFluid, String resultFluid,
+                                  int slot, float resultVolume) {
+        this.instigator = instigator;
+        this.addedFluid = addedFluid;
+        this.presentFluid = presentFluid;
+        this.resultFluid = resultFluid;
+        this.slot = slot;
+        this.resultVolume = resultVolume;
+    }
+
+    /**
+     * Accessor function that returns the instigator of the mixing.
+     *
+     * @return The instigator of the event
+     */
+    public EntityRef getInstigator() {
+        return instigator;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid that was moved into the slot.
+     *
+     * @return The type of the added fluid
+     */
+    public String getAddedFluid() {
+        return addedFluid;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid that was already in the slot.
+     *
+     * @return The type of the present fluid
+     */
+    public String getPresentFluid() {
+        return presentFluid;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid the mixture turned into.
+     *
+     * @return The type of the resulting fluid
+     */
+    public String getResultFluid() {
+        return resultFluid;
+    }
+
+    /**
+     * Accessor function that returns the slot number in which the fluids were mixed.
+     *
+     * @return The slot number of the slot in which the fluids were mixed
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Accessor function that returns the volume of the resulting fluid.
+     *
+     * @return The volume of the resulting fluid
+     */
+    public float getResultVolume() {
+        return resultVolume;
+    }
+}
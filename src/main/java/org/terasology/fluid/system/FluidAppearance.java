@@ -0,0 +1,119 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+/**
+ * An immutable, compact description of how a fluid looks: either a single solid colour, or a tile of packed ARGB
+ * pixels. A {@link BufferedImage} is only created when one is asked for.
+ */
+public final class FluidAppearance {
+    /** The size of the image materialized for solid colour fluids */
+    private static final int SOLID_SIZE = 16;
+
+    private final int width;
+    private final int height;
+    private final int color;
+    /** The ARGB pixels of the tile, row by row, or null for a solid colour */
+    private final int[] pixels;
+
+    private FluidAppearance(int width, int height, int color, int[] pixels) {
+        this.width = width;
+        this.height = height;
+        this.color = color;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Creates the appearance of a fluid of a single solid colour.
+     *
+     * @param color The colour of the fluid
+     * @return      The appearance of the fluid
+     */
+    public static FluidAppearance ofColor(Color color) {
+        return new FluidAppearance(SOLID_SIZE, SOLID_SIZE, color.getRGB(), null);
+    }
+
+    /**
+     * Creates the appearance of a fluid from a texture. The pixels are copied, so the image isn't retained; a texture
+     * of a single colour is stored as a solid colour.
+     *
+     * @param image The texture of the fluid
+     * @return      The appearance of the fluid
+     */
+    public static FluidAppearance ofImage(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        for (int pixel : pixels) {
+            if (pixel != pixels[0]) {
+                return new FluidAppearance(width, height, 0, pixels);
+            }
+        }
+        return new FluidAppearance(width, height, pixels.length > 0 ? pixels[0] : 0, null);
+    }
+
+    /**
+     * Accessor function that returns whether the fluid is a single solid colour.
+     *
+     * @return Whether the fluid is a single solid colour
+     */
+    public boolean isSolidColor() {
+        return pixels == null;
+    }
+
+    /**
+     * Accessor function that returns the colour of a solid colour fluid.
+     *
+     * @return The ARGB colour of the fluid, or 0 if it isn't a solid colour
+     */
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * Accessor function that returns the width of the tile.
+     *
+     * @return The width of the tile, in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Accessor function that returns the height of the tile.
+     *
+     * @return The height of the tile, in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Accessor function that returns the colour of a pixel of the tile.
+     *
+     * @param x The X co-ordinate of the pixel within the tile
+     * @param y The Y co-ordinate of the pixel within the tile
+     * @return  The ARGB colour of the pixel
+     */
+    public int getArgb(int x, int y) {
+        return pixels == null ? color : pixels[y * width + x];
+    }
+
+    /**
+     * Creates a new image of the tile.
+     *
+     * @return The image of the tile
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, getArgb(x, y));
+            }
+        }
+        return image;
+    }
+}
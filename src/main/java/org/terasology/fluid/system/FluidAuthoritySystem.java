@@ -31,6 +31,7 @@ import org.terasology.engine.world.block.entity.placement.PlaceBlocks;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.flowingliquids.world.block.LiquidData;
 import org.terasology.fluid.component.FluidContainerItemComponent;
+import org.terasology.fluid.diagnostics.FluidProfiler;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 import org.terasology.module.inventory.systems.InventoryManager;
 
@@ -54,7 +55,7 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
      * If one block is 1m across, the fluid units are litres. This works reasonably
      * sensibly with the pre-existing container sizes in ManualLabor.
      */
-    private static final float FLUID_PER_BLOCK = 1000;
+    static final float FLUID_PER_BLOCK = 1000;
 
     @In
     private WorldProvider worldProvider;
@@ -64,6 +65,10 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
     private FluidRegistry fluidRegistry;
     @In
     private InventoryManager inventoryManager;
+    @In
+    private FluidWorldVolumeIndex fluidWorldVolumeIndex;
+    @In
+    private FluidProfiler fluidProfiler;
 
     @In
     private BlockManager blockManager;
@@ -157,6 +162,7 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
         if (onItemUseEvent.isConsumed()) {
             return;
         }
+        Object profile = fluidProfiler.beginWorldInteraction();
         EntityRef gaze = GazeAuthoritySystem.getGazeEntityForCharacter(character);
         LocationComponent gazeLocation = gaze.getComponent(LocationComponent.class);
         getLiquidInReach(
@@ -177,13 +183,12 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
             float blockAmount = getLiquidInBlock(pos);
 
             FluidContainerItemComponent fluidComponent = removedItem.getComponent(FluidContainerItemComponent.class);
-            float totalAmount = blockAmount + fluidComponent.volume;
-            if (totalAmount > fluidComponent.maxVolume) {
-                blockAmount = totalAmount - fluidComponent.maxVolume;
-                totalAmount = fluidComponent.maxVolume;
-            } else {
-                blockAmount = 0;
-            }
+            float volumeBefore = fluidComponent.volume;
+            float availableAmount = blockAmount + fluidComponent.volume;
+            // Whatever doesn't fit, including what is below the volume quantum, stays in the block.
+            float totalAmount = Math.max(fluidComponent.volume,
+                    fluidComponent.quantizeVolume(Math.min(availableAmount, fluidComponent.maxVolume), false));
+            blockAmount = Math.max(0, availableAmount - totalAmount);
             // Set the contents of this fluid container and fill it up to max capacity.
             FluidUtils.setFluidForContainerItem(removedItem, fluidType, totalAmount);
 
@@ -193,6 +198,7 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
 
             // This will be less than the original liquid height, unless the container somehow started off overfull.
             setLiquidInBlock(pos, blockAmount);
+            fluidProfiler.endWorldInteraction(profile, "fill", removedItem, pos, fluidType, totalAmount - volumeBefore);
         });
     }
 
@@ -210,6 +216,7 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
         if (fluidContainer.fluidType == null || characterComponent == null) {
             return;
         }
+        Object profile = fluidProfiler.beginWorldInteraction();
         getPlacementPosition(
                 event.getOrigin(), event.getDirection(), event.getInstigator(),
                 characterComponent.interactionRange).ifPresent(pos -> {
@@ -223,6 +230,8 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
                 return;
             }
             FluidContainerItemComponent fluidComponent = removedItem.getComponent(FluidContainerItemComponent.class);
+            String fluidType = fluidComponent.fluidType;
+            float volumeBefore = fluidComponent.volume;
 
             worldProvider.getWorldEntity().send(new PlaceBlocks(pos, liquid, event.getInstigator()));
             if (fluidComponent.volume > FLUID_PER_BLOCK) {
@@ -237,6 +246,7 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
             if (!inventoryManager.giveItem(owner, event.getInstigator(), removedItem)) {
                 removedItem.destroy();
             }
+            fluidProfiler.endWorldInteraction(profile, "empty", removedItem, pos, fluidType, volumeBefore - fluidComponent.volume);
         });
     }
 
@@ -267,6 +277,10 @@ public class FluidAuthoritySystem extends BaseComponentSystem {
             worldProvider.setBlock(pos, air);
         } else if (flowingLiquidsEnabled) {
             worldProvider.setExtraData(flowIndex, pos, LiquidData.setHeight(LiquidData.FULL, liquidLevel));
+            // Changing the liquid height doesn't change the block, so the volume index has to be told.
+            if (fluidWorldVolumeIndex != null) {
+                fluidWorldVolumeIndex.refreshBlock(pos);
+            }
         }
     }
 
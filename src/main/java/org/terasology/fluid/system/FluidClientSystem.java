@@ -3,15 +3,20 @@
 package org.terasology.fluid.system;
 
 import org.joml.Vector2i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.GameScheduler;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
 import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.engine.logic.inventory.ItemComponent;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.rendering.assets.texture.Texture;
+import org.terasology.engine.rendering.assets.texture.TextureData;
 import org.terasology.engine.rendering.assets.texture.TextureUtil;
 import org.terasology.engine.utilities.Assets;
 import org.terasology.fluid.component.FluidContainerItemComponent;
@@ -25,13 +30,26 @@ import org.terasology.nui.Canvas;
 import org.terasology.nui.Color;
 import org.terasology.nui.widgets.TooltipLine;
 
-import java.util.Optional;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * This client system handles client-side operations that occur when fluid components are changed.
+ * <p>
+ * Icons of filled fluid containers are composed on the engine's parallel scheduler the first time they are needed. The
+ * container shows its empty texture until the icon has been loaded as an asset, on the main thread. A failed composition
+ * is retried a few times for the containers waiting for it, and again on the next request after that.
  */
 @RegisterSystem(RegisterMode.CLIENT)
-public class FluidClientSystem extends BaseComponentSystem {
+public class FluidClientSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(FluidClientSystem.class);
+    /** The number of times in a row the composition of an icon is attempted for the containers waiting for it */
+    private static final int MAX_ICON_ATTEMPTS = 3;
 
     @In
     private FluidRegistry fluidRegistry;
@@ -39,6 +57,56 @@ public class FluidClientSystem extends BaseComponentSystem {
     @In
     private AssetManager assetManager;
 
+    /** Icons composed in the background, waiting to be loaded as assets on the main thread */
+    private final Queue<GeneratedIcon> generatedIcons = new ConcurrentLinkedQueue<>();
+
+    /** The fluid containers waiting for an icon, by the URN of the icon */
+    private final Map<ResourceUrn, Set<EntityRef>> pendingIcons = new HashMap<>();
+
+    /** The number of failed attempts in a row at composing each icon */
+    private final Map<ResourceUrn, Integer> failedIcons = new HashMap<>();
+
+    @Override
+    public void shutdown() {
+        generatedIcons.clear();
+        pendingIcons.clear();
+        failedIcons.clear();
+    }
+
+    /**
+     * Loads the icons composed since the last update, and puts them on the fluid containers waiting for them. The
+     * containers waiting for an icon that failed are asked again, until it has failed {@link #MAX_ICON_ATTEMPTS} times.
+     *
+     * @param delta The time passed since the last update, in seconds
+     */
+    @Override
+    public void update(float delta) {
+        GeneratedIcon icon;
+        while ((icon = generatedIcons.poll()) != null) {
+            Set<EntityRef> waitingContainers = pendingIcons.remove(icon.urn);
+            if (icon.data == null) {
+                int failures = failedIcons.merge(icon.urn, 1, Integer::sum);
+                if (failures >= MAX_ICON_ATTEMPTS) {
+                    // Start over on the next request for the icon.
+                    failedIcons.remove(icon.urn);
+                    logger.warn("Giving up on fluid container icon {} after {} attempts", icon.urn, failures);
+                    continue;
+                }
+            } else {
+                failedIcons.remove(icon.urn);
+                assetManager.loadAsset(icon.urn, icon.data, Texture.class);
+            }
+            if (waitingContainers != null) {
+                for (EntityRef container : waitingContainers) {
+                    FluidContainerItemComponent fluidContainerItem = container.getComponent(FluidContainerItemComponent.class);
+                    if (fluidContainerItem != null) {
+                        setFluidContainerIcon(container, fluidContainerItem);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Sets the tooltip of a fluid container.
      *
@@ -99,12 +167,17 @@ public class FluidClientSystem extends BaseComponentSystem {
             ItemComponent itemComp = container.getComponent(ItemComponent.class);
             if (fluidType != null) {
                 // Set the icon of this fluid container to show that it's filled.
-                String iconUrn = FluidContainerAssetResolver.getFluidContainerUri(
+                ResourceUrn iconUrn = new ResourceUrn(FluidContainerAssetResolver.getFluidContainerUri(
                         fluidContainerItem.textureWithHole.getUrn().toString(), fluidType,
                         fluidContainerItem.fluidMinPerc.x, fluidContainerItem.fluidMinPerc.y,
-                        fluidContainerItem.fluidSizePerc.x, fluidContainerItem.fluidSizePerc.y);
-                Optional<Texture> icon = assetManager.getAsset(iconUrn, Texture.class);
-                itemComp.icon = icon.isPresent() ? icon.get() : fluidContainerItem.emptyTexture;
+                        fluidContainerItem.fluidSizePerc.x, fluidContainerItem.fluidSizePerc.y));
+                if (assetManager.isLoaded(iconUrn, Texture.class)) {
+                    itemComp.icon = assetManager.getAsset(iconUrn, Texture.class).orElse(fluidContainerItem.emptyTexture);
+                } else {
+                    // Show the empty container until the icon has been composed in the background.
+                    itemComp.icon = fluidContainerItem.emptyTexture;
+                    requestIcon(iconUrn, container, fluidContainerItem);
+                }
             } else {
                 itemComp.icon = fluidContainerItem.emptyTexture;
             }
@@ -112,6 +185,45 @@ public class FluidClientSystem extends BaseComponentSystem {
         }
     }
 
+    /**
+     * Queue the composition of the icon of a filled fluid container, unless it is already queued.
+     *
+     * @param iconUrn               The URN of the icon.
+     * @param container             Reference to the entity that acts a fluid container.
+     * @param fluidContainerItem    The fluid container item component of the entity.
+     */
+    private void requestIcon(ResourceUrn iconUrn, EntityRef container, FluidContainerItemComponent fluidContainerItem) {
+        Set<EntityRef> waitingContainers = pendingIcons.get(iconUrn);
+        if (waitingContainers != null) {
+            waitingContainers.add(container);
+            return;
+        }
+        FluidAppearance fluidAppearance = fluidRegistry.getFluidAppearance(fluidContainerItem.fluidType);
+        if (fluidAppearance == null) {
+            return;
+        }
+        // Reading the container texture has to happen on the main thread; composing the icon doesn't.
+        BufferedImage containerTexture = TextureUtil.convertToImage(fluidContainerItem.textureWithHole);
+        float minPercX = fluidContainerItem.fluidMinPerc.x;
+        float minPercY = fluidContainerItem.fluidMinPerc.y;
+        float sizePercX = fluidContainerItem.fluidSizePerc.x;
+        float sizePercY = fluidContainerItem.fluidSizePerc.y;
+
+        waitingContainers = new HashSet<>();
+        waitingContainers.add(container);
+        pendingIcons.put(iconUrn, waitingContainers);
+        GameScheduler.scheduleParallel("Fluid icon generation", () -> {
+            TextureData data = null;
+            try {
+                data = FluidContainerAssetResolver.toTextureData(FluidContainerAssetResolver.composeFluidContainerImage(
+                        containerTexture, fluidAppearance, minPercX, minPercY, sizePercX, sizePercY));
+            } catch (RuntimeException e) {
+                logger.error("Failed to compose fluid container icon {}", iconUrn, e);
+            }
+            generatedIcons.add(new GeneratedIcon(iconUrn, data));
+        });
+    }
+
     /**
      * Used to draw the Filling bar over the fluid container item in the cell.
      *
@@ -145,4 +257,17 @@ public class FluidClientSystem extends BaseComponentSystem {
                     maxY - fillingBarHeight - 1).setSize(fillingBarLength, fillingBarHeight));
         }
     }
+
+    /**
+     * An icon composed in the background, or a failed attempt at composing one.
+     */
+    private static final class GeneratedIcon {
+        private final ResourceUrn urn;
+        private final TextureData data;
+
+        private GeneratedIcon(ResourceUrn urn, TextureData data) {
+            this.urn = urn;
+            this.data = data;
+        }
+    }
 }
@@ -2,6 +2,8 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.fluid.system;
 
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.registry.In;
@@ -12,8 +14,10 @@ import org.terasology.engine.world.block.BlockPart;
 import org.terasology.engine.world.block.BlockUri;
 import org.terasology.engine.world.block.loader.BlockFamilyDefinition;
 import org.terasology.engine.world.block.loader.SectionDefinitionData;
+import org.terasology.fluid.component.FluidInventoryAccessComponent;
 import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.gestalt.assets.management.AssetManager;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
 import java.awt.image.BufferedImage;
 import java.util.Optional;
@@ -49,4 +53,17 @@ public class FluidCommonSystem extends BaseComponentSystem {
             });
         }
     }
+
+    /**
+     * Has the ports of an entity compiled again when they are redefined. This runs on clients as well as on the
+     * server, as both look up the ports.
+     *
+     * @param event  Event that indicates the change
+     * @param entity The entity whose ports changed
+     * @param access The ports of the entity
+     */
+    @ReceiveEvent
+    public void onPortsChanged(OnChangedComponent event, EntityRef entity, FluidInventoryAccessComponent access) {
+        access.invalidateAccessMask();
+    }
 }
@@ -11,6 +11,7 @@ import org.terasology.engine.rendering.assets.texture.Texture;
 import org.terasology.engine.rendering.assets.texture.TextureData;
 import org.terasology.engine.rendering.assets.texture.TextureRegionAsset;
 import org.terasology.engine.rendering.assets.texture.TextureUtil;
+import org.terasology.fluid.diagnostics.FluidProfiler;
 import org.terasology.gestalt.assets.AssetDataProducer;
 import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.gestalt.assets.management.AssetManager;
@@ -20,6 +21,7 @@ import org.terasology.gestalt.naming.Name;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
@@ -120,6 +122,24 @@ public class FluidContainerAssetResolver implements AssetDataProducer<TextureDat
      */
     @Override
     public Optional<TextureData> getAssetData(ResourceUrn urn) {
+        FluidProfiler fluidProfiler = CoreRegistry.get(FluidProfiler.class);
+        if (fluidProfiler == null) {
+            fluidProfiler = FluidProfiler.NONE;
+        }
+        Object profile = fluidProfiler.beginAssetGeneration();
+        Optional<TextureData> data = generateAssetData(urn);
+        fluidProfiler.endAssetGeneration(profile, urn.toString(), data.map(TextureData::getWidth).orElse(0),
+                data.map(TextureData::getHeight).orElse(0), data.isPresent());
+        return data;
+    }
+
+    /**
+     * Composites the texture described by a given URN.
+     *
+     * @param urn The URN of the fluid or fluid container texture
+     * @return    The texture data, or empty if the URN isn't one of this resolver's or can't be generated yet
+     */
+    private Optional<TextureData> generateAssetData(ResourceUrn urn) {
         final String assetName = urn.getResourceName().toString().toLowerCase();
         if (!FLUID_MODULE.equals(urn.getModuleName())
                 || !(assetName.startsWith("fluiditem(") || assetName.startsWith("fluidbase("))) {
@@ -171,58 +191,96 @@ public class FluidContainerAssetResolver implements AssetDataProducer<TextureDat
             String textureWithHole = parameters[0];
             String fluidType = parameters[1];
 
-            BufferedImage fluidTexture = fluidRegistry.getFluidTexture(fluidType);
-            if (fluidTexture == null) {
+            FluidAppearance fluidAppearance = fluidRegistry.getFluidAppearance(fluidType);
+            if (fluidAppearance == null) {
                 return Optional.empty();
             }
 
             Optional<TextureRegionAsset> textureWithHoleRegion = assetManager.getAsset(textureWithHole,
                     TextureRegionAsset.class);
             BufferedImage containerTexture = TextureUtil.convertToImage(textureWithHoleRegion.get());
-            int width = containerTexture.getWidth();
-            int height = containerTexture.getHeight();
-
-            int fluidWidth = fluidTexture.getWidth();
-            int fluidHeight = fluidTexture.getHeight();
-
-            Vector2i min = new Vector2i(
-                    Math.round(Float.parseFloat(parameters[2]) * width),
-                    Math.round(Float.parseFloat(parameters[3]) * height));
-            Vector2i size = new Vector2i(
-                    Math.round(Float.parseFloat(parameters[4]) * width),
-                    Math.round(Float.parseFloat(parameters[5]) * height));
-
-            result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D graphics = (Graphics2D) result.getGraphics();
-            try {
-                // Draw fluid texture tiled in the designated space
-                for (int x = min.x; x < min.x + size.x; x += fluidWidth) {
-                    for (int y = min.y; y < min.y + size.y; y += fluidHeight) {
-                        int fluidTileWidth = Math.min(fluidWidth, size.x + min.x - x);
-                        int fluidTileHeight = Math.min(fluidHeight, size.y + min.y - y);
-                        graphics.drawImage(fluidTexture, x, y, x + fluidTileWidth, y + fluidTileHeight,
-                                0, 0, fluidTileWidth, fluidTileHeight, null);
-                    }
-                }
-                // Draw the container texture on top of the fluid
-                graphics.drawImage(containerTexture, 0, 0, null);
-            } finally {
-                graphics.dispose();
-            }
+
+            result = composeFluidContainerImage(containerTexture, fluidAppearance,
+                    Float.parseFloat(parameters[2]), Float.parseFloat(parameters[3]),
+                    Float.parseFloat(parameters[4]), Float.parseFloat(parameters[5]));
         } else {
             String fluidType = parameters[0];
 
-            result = fluidRegistry.getFluidTexture(fluidType);
-            if (result == null) {
+            FluidAppearance fluidAppearance = fluidRegistry.getFluidAppearance(fluidType);
+            if (fluidAppearance == null) {
                 return Optional.empty();
             }
+            result = fluidAppearance.toImage();
         }
 
-        final ByteBuffer resultBuffer = TextureUtil.convertToByteBuffer(result);
+        return Optional.of(toTextureData(result));
+    }
 
-        TextureData data = new TextureData(result.getWidth(), result.getHeight(), new ByteBuffer[]{resultBuffer}, Texture.WrapMode.REPEAT,
-                Texture.FilterMode.NEAREST);
-        return Optional.of(data);
+    /**
+     * Draws a fluid, tiled, into the designated space of a container texture. This only works on images, so it can
+     * safely run outside of the main thread.
+     *
+     * @param containerTexture The texture of the container with a hole for the fluid
+     * @param fluidAppearance  The appearance of the fluid
+     * @param minPercX         The X co-ordinate where the fluid 'filling' should start
+     * @param minPercY         The Y co-ordinate where the fluid 'filling' should start
+     * @param sizePercX        The width of the fluid 'filling'
+     * @param sizePercY        The height of the fluid 'filling'
+     * @return                 The composed image
+     */
+    static BufferedImage composeFluidContainerImage(BufferedImage containerTexture, FluidAppearance fluidAppearance,
+                                                    float minPercX, float minPercY, float sizePercX, float sizePercY) {
+        int width = containerTexture.getWidth();
+        int height = containerTexture.getHeight();
+
+        int fluidWidth = fluidAppearance.getWidth();
+        int fluidHeight = fluidAppearance.getHeight();
 
+        Vector2i min = new Vector2i(Math.round(minPercX * width), Math.round(minPercY * height));
+        Vector2i size = new Vector2i(Math.round(sizePercX * width), Math.round(sizePercY * height));
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        // Write the fluid tiled in the designated space, one row at a time, straight from the packed pixels.
+        int startX = Math.max(0, min.x);
+        int endX = Math.min(width, min.x + size.x);
+        int startY = Math.max(0, min.y);
+        int endY = Math.min(height, min.y + size.y);
+        if (startX < endX && startY < endY) {
+            int[] row = new int[endX - startX];
+            if (fluidAppearance.isSolidColor()) {
+                Arrays.fill(row, fluidAppearance.getColor());
+            }
+            for (int y = startY; y < endY; y++) {
+                if (!fluidAppearance.isSolidColor()) {
+                    int fluidY = (y - min.y) % fluidHeight;
+                    for (int x = startX; x < endX; x++) {
+                        row[x - startX] = fluidAppearance.getArgb((x - min.x) % fluidWidth, fluidY);
+                    }
+                }
+                result.setRGB(startX, y, row.length, 1, row, 0, row.length);
+            }
+        }
+
+        Graphics2D graphics = (Graphics2D) result.getGraphics();
+        try {
+            // Draw the container texture on top of the fluid
+            graphics.drawImage(containerTexture, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+
+    /**
+     * Converts an image into the texture data of a fluid texture.
+     *
+     * @param image The image to convert
+     * @return      The texture data
+     */
+    static TextureData toTextureData(BufferedImage image) {
+        final ByteBuffer resultBuffer = TextureUtil.convertToByteBuffer(image);
+        return new TextureData(image.getWidth(), image.getHeight(), new ByteBuffer[]{resultBuffer}, Texture.WrapMode.REPEAT,
+                Texture.FilterMode.NEAREST);
     }
 }
@@ -0,0 +1,115 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable copy of the fluid state of a single fluid inventory: the fluid type and volume of each slot, and the
+ * maximum volume of each slot.
+ */
+public final class FluidContainerState {
+    private final String[] fluidTypes;
+    private final float[] volumes;
+    private final float[] maximumVolumes;
+
+    private FluidContainerState(String[] fluidTypes, float[] volumes, float[] maximumVolumes) {
+        this.fluidTypes = fluidTypes;
+        this.volumes = volumes;
+        this.maximumVolumes = maximumVolumes;
+    }
+
+    /**
+     * Copies the current state of a fluid inventory.
+     *
+     * @param fluidInventory The fluid inventory to copy
+     * @return               The state of the fluid inventory
+     */
+    public static FluidContainerState of(FluidInventoryComponent fluidInventory) {
+        List<EntityRef> fluidSlots = fluidInventory.fluidSlots;
+        int slotCount = fluidSlots.size();
+        String[] fluidTypes = new String[slotCount];
+        float[] volumes = new float[slotCount];
+        float[] maximumVolumes = new float[slotCount];
+        int slot = 0;
+        for (EntityRef fluidEntity : fluidSlots) {
+            FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+            if (fluid != null) {
+                fluidTypes[slot] = fluid.fluidType;
+                volumes[slot] = fluid.volume;
+            }
+            slot++;
+        }
+        slot = 0;
+        for (Float maximumVolume : fluidInventory.maximumVolumes) {
+            if (slot == slotCount) {
+                break;
+            }
+            maximumVolumes[slot++] = maximumVolume;
+        }
+        return new FluidContainerState(fluidTypes, volumes, maximumVolumes);
+    }
+
+    /**
+     * Accessor function that returns the number of slots of the fluid inventory.
+     *
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return volumes.length;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid in a slot.
+     *
+     * @param slot The slot number
+     * @return     The type of the fluid, or null if the slot was empty
+     */
+    public String getFluidType(int slot) {
+        return fluidTypes[slot];
+    }
+
+    /**
+     * Accessor function that returns the volume of the fluid in a slot.
+     *
+     * @param slot The slot number
+     * @return     The volume of the fluid, or 0 if the slot was empty
+     */
+    public float getVolume(int slot) {
+        return volumes[slot];
+    }
+
+    /**
+     * Accessor function that returns the maximum volume of a slot.
+     *
+     * @param slot The slot number
+     * @return     The maximum volume of the slot
+     */
+    public float getMaximumVolume(int slot) {
+        return maximumVolumes[slot];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FluidContainerState that = (FluidContainerState) o;
+        return Arrays.equals(fluidTypes, that.fluidTypes)
+                && Arrays.equals(volumes, that.volumes)
+                && Arrays.equals(maximumVolumes, that.maximumVolumes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(fluidTypes) + Arrays.hashCode(volumes)) + Arrays.hashCode(maximumVolumes);
+    }
+}
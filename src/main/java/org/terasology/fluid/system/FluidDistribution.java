@@ -0,0 +1,100 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.fluid.component.FluidComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the sources and sinks of a fluid distribution for {@link FluidManager#distributeFluid}, and holds the
+ * volume each of them ended up giving or receiving once it has been applied.
+ * <p>
+ * Sinks with a higher priority are served first. Sinks of the same priority share what is left in proportion to their
+ * weight, without any of them getting more than it can hold; what a full sink can't take goes to the others. If none
+ * of them has any weight, they share equally; what a tier can't take at all goes on to the next one. Sources
+ * are drained in proportion to what they can give. Each fluid inventory slot may only take part once in a distribution;
+ * later mentions of a slot are ignored.
+ */
+public class FluidDistribution {
+    final List<Participant> sources = new ArrayList<>();
+    final List<Participant> sinks = new ArrayList<>();
+
+    /**
+     * Adds a source of fluid.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param slot      The slot number of the fluid inventory to take fluid from
+     * @param maxVolume The maximum volume to take from the slot
+     * @return          The index of the source, for {@link #getSourceVolume}
+     */
+    public int addSource(EntityRef container, int slot, float maxVolume) {
+        sources.add(new Participant(container, slot, 0, 1, maxVolume));
+        return sources.size() - 1;
+    }
+
+    /**
+     * Adds a sink of fluid.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param slot      The slot number of the fluid inventory to put fluid into
+     * @param priority  The priority of the sink; higher priorities are served first
+     * @param weight    The share of the sink among sinks of the same priority
+     * @param maxVolume The maximum volume to put into the slot
+     * @return          The index of the sink, for {@link #getSinkVolume}
+     */
+    public int addSink(EntityRef container, int slot, int priority, float weight, float maxVolume) {
+        sinks.add(new Participant(container, slot, priority, weight, maxVolume));
+        return sinks.size() - 1;
+    }
+
+    /**
+     * Accessor function that returns the volume taken from a source by the last distribution.
+     *
+     * @param source The index of the source
+     * @return       The volume taken from the source
+     */
+    public float getSourceVolume(int source) {
+        return sources.get(source).allocated;
+    }
+
+    /**
+     * Accessor function that returns the volume put into a sink by the last distribution.
+     *
+     * @param sink The index of the sink
+     * @return     The volume put into the sink
+     */
+    public float getSinkVolume(int sink) {
+        return sinks.get(sink).allocated;
+    }
+
+    /**
+     * A source or sink, together with the state gathered while solving the distribution.
+     */
+    static final class Participant {
+        final EntityRef container;
+        final int slot;
+        final int priority;
+        final float weight;
+        final float maxVolume;
+
+        /** The volume the participant can give or take, once its components have been read */
+        float limit;
+        /** The volume given or taken by the distribution */
+        float allocated;
+        /** The fluid in the slot when the distribution started, if any */
+        EntityRef fluidEntity = EntityRef.NULL;
+        FluidComponent fluid;
+        float volumeBefore;
+
+        private Participant(EntityRef container, int slot, int priority, float weight, float maxVolume) {
+            this.container = container;
+            this.slot = slot;
+            this.priority = priority;
+            this.weight = weight;
+            this.maxVolume = maxVolume;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * Tracks which component sets the handlers of the fluid veto events listen to, so that the fluid manager can skip
+ * constructing and sending those events for containers no handler would ever receive them on.
+ */
+public interface FluidEventGate {
+    /**
+     * Checks whether any {@link org.terasology.fluid.event.BeforeFluidPutInInventory} handler would receive the event
+     * when sent to the given container.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @return Whether the event needs to be sent
+     */
+    boolean hasPutVetoHandlers(EntityRef container);
+
+    /**
+     * Checks whether any {@link org.terasology.fluid.event.BeforeFluidRemovedFromInventory} handler would receive the
+     * event when sent to the given container.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @return Whether the event needs to be sent
+     */
+    boolean hasRemoveVetoHandlers(EntityRef container);
+
+    /**
+     * Declares a handler of a veto event that was registered directly with the event system rather than through a
+     * component system, which the gate can't discover on its own.
+     *
+     * @param eventType  The veto event the handler receives
+     * @param components The components an entity needs for the handler to receive the event
+     */
+    void registerVetoReceiver(Class<? extends Event> eventType, Class<? extends Component>... components);
+}
@@ -0,0 +1,148 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.core.ComponentSystemManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.ComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.event.BeforeFluidPutInInventory;
+import org.terasology.fluid.event.BeforeFluidRemovedFromInventory;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Discovers the handlers of the fluid veto events by scanning the {@link ReceiveEvent} methods of all registered
+ * component systems once they are all in place. An event only reaches a handler if the entity has every component the
+ * handler requires, so the event can be skipped for containers that don't match any handler's component set.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidEventGate.class)
+public class FluidEventGateImpl extends BaseComponentSystem implements FluidEventGate {
+    @In
+    private ComponentSystemManager componentSystemManager;
+
+    private HandlerSets putHandlers = new HandlerSets();
+    private HandlerSets removeHandlers = new HandlerSets();
+    private boolean scanned;
+
+    /**
+     * Scans the handlers once every system has been registered and initialised.
+     */
+    @Override
+    public void postBegin() {
+        scanHandlers();
+    }
+
+    @Override
+    public boolean hasPutVetoHandlers(EntityRef container) {
+        if (!scanned) {
+            // Asked before postBegin, so other systems may still be missing; be conservative.
+            return true;
+        }
+        return putHandlers.matches(container);
+    }
+
+    @Override
+    public boolean hasRemoveVetoHandlers(EntityRef container) {
+        if (!scanned) {
+            return true;
+        }
+        return removeHandlers.matches(container);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void registerVetoReceiver(Class<? extends Event> eventType, Class<? extends Component>... components) {
+        if (eventType.isAssignableFrom(BeforeFluidPutInInventory.class)) {
+            putHandlers.add(components);
+        }
+        if (eventType.isAssignableFrom(BeforeFluidRemovedFromInventory.class)) {
+            removeHandlers.add(components);
+        }
+    }
+
+    /**
+     * Collects the component sets of all the handlers able to receive one of the veto events.
+     */
+    @SuppressWarnings("unchecked")
+    private void scanHandlers() {
+        for (ComponentSystem system : componentSystemManager.iterateAll()) {
+            for (Method method : system.getClass().getMethods()) {
+                ReceiveEvent receiveEvent = method.getAnnotation(ReceiveEvent.class);
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (receiveEvent == null || parameterTypes.length < 2) {
+                    continue;
+                }
+
+                // The required components are the ones listed in the annotation plus the component parameters.
+                List<Class<? extends Component>> required = new ArrayList<>(Arrays.asList(receiveEvent.components()));
+                for (int i = 2; i < parameterTypes.length; i++) {
+                    if (Component.class.isAssignableFrom(parameterTypes[i])) {
+                        required.add((Class<? extends Component>) parameterTypes[i]);
+                    }
+                }
+                Class<? extends Component>[] requiredArray = required.toArray(new Class[0]);
+
+                // Handlers of a supertype of the event, such as a catch-all consumable event handler, receive it too.
+                if (parameterTypes[0].isAssignableFrom(BeforeFluidPutInInventory.class)) {
+                    putHandlers.add(requiredArray);
+                }
+                if (parameterTypes[0].isAssignableFrom(BeforeFluidRemovedFromInventory.class)) {
+                    removeHandlers.add(requiredArray);
+                }
+            }
+        }
+        scanned = true;
+    }
+
+    /**
+     * The distinct component sets that handlers of one event type require.
+     */
+    private static final class HandlerSets {
+        private final Set<List<Class<? extends Component>>> componentSets = new LinkedHashSet<>();
+        /** Whether some handler requires no component at all, and so receives the event on every entity */
+        private boolean unconditional;
+
+        private void add(Class<? extends Component>[] components) {
+            if (components.length == 0) {
+                unconditional = true;
+            } else {
+                componentSets.add(Arrays.asList(components));
+            }
+        }
+
+        private boolean matches(EntityRef entity) {
+            if (unconditional) {
+                return true;
+            }
+            for (List<Class<? extends Component>> components : componentSets) {
+                if (hasAll(entity, components)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasAll(EntityRef entity, List<Class<? extends Component>> components) {
+            for (Class<? extends Component> component : components) {
+                if (!entity.hasComponent(component)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Tells the server which fluid inventories the local client is viewing, so that their slot entities are replicated to
+ * it. Anything drawing the slots of a fluid inventory should touch it on every draw; the detail stops being replicated
+ * shortly after the touches stop.
+ */
+public interface FluidInterest {
+    /**
+     * Declares that the local client is viewing the slots of a fluid inventory.
+     *
+     * @param container The entity that houses the fluid inventory
+     */
+    void touch(EntityRef container);
+}
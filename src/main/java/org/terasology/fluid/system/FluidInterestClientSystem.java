@@ -0,0 +1,57 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.players.LocalPlayer;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.event.FluidInterestEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renews the interest of the local client in the fluid inventories it is viewing, sending a {@link FluidInterestEvent}
+ * well before the server lets the previous one expire. An implementation of the FluidInterest interface.
+ */
+@RegisterSystem(RegisterMode.CLIENT)
+@Share(FluidInterest.class)
+public class FluidInterestClientSystem extends BaseComponentSystem implements FluidInterest {
+    /** The interval between renewals of the interest in a fluid inventory, in milliseconds */
+    private static final long RENEW_INTERVAL = FluidInterestSystem.LEASE_DURATION / 3;
+    /** The number of tracked fluid inventories above which the ones no longer viewed are forgotten */
+    private static final int PRUNE_THRESHOLD = 64;
+
+    @In
+    private Time time;
+
+    @In
+    private LocalPlayer localPlayer;
+
+    /** The time the interest in each fluid inventory was last sent, in milliseconds */
+    private Map<EntityRef, Long> lastSent = new HashMap<>();
+
+    @Override
+    public void shutdown() {
+        lastSent.clear();
+    }
+
+    @Override
+    public void touch(EntityRef container) {
+        long now = time.getGameTimeInMs();
+        Long sent = lastSent.get(container);
+        if (sent != null && now - sent < RENEW_INTERVAL && now >= sent) {
+            return;
+        }
+        if (lastSent.size() >= PRUNE_THRESHOLD) {
+            lastSent.values().removeIf(sentTime -> now - sentTime >= FluidInterestSystem.LEASE_DURATION);
+        }
+        lastSent.put(container, now);
+        localPlayer.getClientEntity().send(new FluidInterestEvent(container));
+    }
+}
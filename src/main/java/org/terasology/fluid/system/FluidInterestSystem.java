@@ -0,0 +1,219 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.network.ClientComponent;
+import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.registry.In;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidSummaryComponent;
+import org.terasology.fluid.event.FluidInterestEvent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decides which client gets the slot entities of each networked fluid inventory, and keeps the replicated
+ * {@link FluidSummaryComponent} of the fluid inventories up to date for everyone else.
+ * <p>
+ * Slot entities are only replicated to their owner. A client viewing a fluid inventory sends {@link FluidInterestEvent}s,
+ * each of which makes it a leaseholder of the fluid inventory for {@link #LEASE_DURATION} milliseconds. A fluid
+ * inventory may have any number of leaseholders, but an entity has a single owner, so the slot entities are owned by the
+ * client entity of the longest-standing leaseholder; the others read the summary until the ones before them leave. Once
+ * the last lease runs out without being renewed, the slot entities go back to having no owner, and stop being replicated.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class FluidInterestSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    /** The time a client keeps the slot entities of a fluid inventory after asking for them, in milliseconds */
+    static final long LEASE_DURATION = 3000;
+    /** The granularity of the fill fractions of the summaries */
+    private static final float FILL_FRACTION_STEP = 1f / 64;
+
+    @In
+    private Time time;
+
+    /** The client entities holding a lease on each fluid inventory, in order of arrival, with the expiry of each lease */
+    private Map<EntityRef, Map<EntityRef, Long>> leases = new HashMap<>();
+
+    @Override
+    public void shutdown() {
+        leases.clear();
+    }
+
+    /**
+     * Grants or renews the lease of a client on the fluid inventory it is viewing. The event is sent to the client entity
+     * of the sender, so that is the client the lease goes to, whatever the event claims.
+     *
+     * @param event  Event sent by the client
+     * @param client The client entity of the client that sent the event
+     */
+    @ReceiveEvent(components = ClientComponent.class)
+    public void onInterest(FluidInterestEvent event, EntityRef client) {
+        EntityRef container = event.getContainer();
+        if (!container.exists() || !container.hasComponent(FluidInventoryComponent.class)) {
+            return;
+        }
+        Map<EntityRef, Long> holders = leases.computeIfAbsent(container, key -> new LinkedHashMap<>());
+        boolean first = holders.isEmpty();
+        holders.put(client, time.getGameTimeInMs() + LEASE_DURATION);
+        if (first) {
+            setSlotOwner(container, client);
+        }
+    }
+
+    /**
+     * Hands new slot entities of a leased fluid inventory to the client viewing it.
+     *
+     * @param event     Event that indicates the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onSlotsChanged(OnChangedComponent event, EntityRef container) {
+        Map<EntityRef, Long> holders = leases.get(container);
+        if (holders != null) {
+            setSlotOwner(container, holders.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Gives a networked fluid inventory its summary when it becomes active.
+     *
+     * @param event     Event that indicates the activation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidInventoryComponent.class, NetworkComponent.class})
+    public void onContainerActivated(OnActivatedComponent event, EntityRef container) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        FluidSummaryComponent summary = container.getComponent(FluidSummaryComponent.class);
+        boolean added = summary == null;
+        if (added) {
+            summary = new FluidSummaryComponent();
+        }
+        summary.fluidTypes.clear();
+        summary.fillFractions.clear();
+        for (int slot = 0; slot < fluidInventory.fluidSlots.size(); slot++) {
+            FluidComponent fluid = fluidInventory.fluidSlots.get(slot).getComponent(FluidComponent.class);
+            summary.fluidTypes.add(fluid != null ? fluid.fluidType : null);
+            summary.fillFractions.add(getFillFraction(fluid != null ? fluid.volume : 0, fluidInventory.maximumVolumes.get(slot)));
+        }
+        if (added) {
+            container.addComponent(summary);
+        } else {
+            container.saveComponent(summary);
+        }
+    }
+
+    /**
+     * Updates the summary of a fluid inventory when the volume in one of its slots changes, replicating it only if the
+     * rounded contents changed.
+     *
+     * @param event     Event with the details of the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidInventoryComponent.class, FluidSummaryComponent.class})
+    public void onVolumeChanged(FluidVolumeChangedInInventory event, EntityRef container) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        FluidSummaryComponent summary = container.getComponent(FluidSummaryComponent.class);
+        int slot = event.getSlot();
+        if (slot >= fluidInventory.fluidSlots.size()) {
+            return;
+        }
+        while (summary.fluidTypes.size() < fluidInventory.fluidSlots.size()) {
+            summary.fluidTypes.add(null);
+        }
+        while (summary.fillFractions.size() < fluidInventory.fluidSlots.size()) {
+            summary.fillFractions.add(0f);
+        }
+
+        // The event may be one of several for a single operation, so look at what the slot holds now.
+        FluidComponent fluid = fluidInventory.fluidSlots.get(slot).getComponent(FluidComponent.class);
+        String fluidType = fluid != null ? fluid.fluidType : null;
+        float fillFraction = getFillFraction(fluid != null ? fluid.volume : 0, fluidInventory.maximumVolumes.get(slot));
+        if (!Objects.equals(summary.fluidTypes.get(slot), fluidType) || summary.fillFractions.get(slot) != fillFraction) {
+            summary.fluidTypes.set(slot, fluidType);
+            summary.fillFractions.set(slot, fillFraction);
+            container.saveComponent(summary);
+        }
+    }
+
+    /**
+     * Forgets the lease of a fluid inventory that is unloaded or destroyed.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        leases.remove(container);
+    }
+
+    /**
+     * Drops the leases that ran out, handing the slot entities to the next leaseholder when their owner's lease is among
+     * them, or taking them back when no leaseholder is left.
+     *
+     * @param delta The time elapsed since the last update
+     */
+    @Override
+    public void update(float delta) {
+        if (leases.isEmpty()) {
+            return;
+        }
+        long now = time.getGameTimeInMs();
+        Iterator<Map.Entry<EntityRef, Map<EntityRef, Long>>> iterator = leases.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<EntityRef, Map<EntityRef, Long>> entry = iterator.next();
+            Map<EntityRef, Long> holders = entry.getValue();
+            EntityRef owner = holders.keySet().iterator().next();
+            holders.entrySet().removeIf(holder -> holder.getValue() <= now || !holder.getKey().exists());
+            if (holders.isEmpty()) {
+                iterator.remove();
+                if (entry.getKey().exists()) {
+                    setSlotOwner(entry.getKey(), EntityRef.NULL);
+                }
+            } else if (!holders.containsKey(owner)) {
+                setSlotOwner(entry.getKey(), holders.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Makes an entity the owner of every slot entity of a fluid inventory.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param owner     The new owner, or {@link EntityRef#NULL}
+     */
+    private static void setSlotOwner(EntityRef container, EntityRef owner) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            return;
+        }
+        for (EntityRef fluidEntity : fluidInventory.fluidSlots) {
+            if (fluidEntity.exists() && !fluidEntity.getOwner().equals(owner)) {
+                fluidEntity.setOwner(owner);
+            }
+        }
+    }
+
+    private static float getFillFraction(float volume, float maximumVolume) {
+        if (volume <= 0 || maximumVolume <= 0) {
+            return 0;
+        }
+        // Never round a slot holding some fluid down to empty.
+        return Math.max(FILL_FRACTION_STEP, Math.round(volume / maximumVolume / FILL_FRACTION_STEP) * FILL_FRACTION_STEP);
+    }
+}
@@ -0,0 +1,21 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+/**
+ * A fluid operation scheduled through the {@link FluidScheduler}.
+ */
+public interface FluidJob {
+    /**
+     * Stops the job from running again. Does nothing if it already ended.
+     */
+    void cancel();
+
+    /**
+     * Accessor function that returns whether the job will still run. A one-off job ends once it has run, and any job
+     * ends when it is cancelled or one of the fluid inventories it works on is destroyed or can't be found.
+     *
+     * @return Whether the job is active
+     */
+    boolean isActive();
+}
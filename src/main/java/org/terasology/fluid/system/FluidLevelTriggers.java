@@ -0,0 +1,65 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidLevelTriggerComponent;
+import org.terasology.fluid.event.FluidLevelCrossed;
+
+/**
+ * Evaluates the {@link FluidLevelTriggerComponent} of a fluid inventory. Shared by everything that writes fluid
+ * inventory slots, so that the levels fire the same way however a slot was changed.
+ */
+final class FluidLevelTriggers {
+    private FluidLevelTriggers() {
+    }
+
+    /**
+     * Send a {@link FluidLevelCrossed} event for every level of the {@link FluidLevelTriggerComponent} of a container
+     * that a change of volume in one of its slots crossed. A change made of several steps, such as a mix emptying the
+     * slot and filling it with the result, should be checked once, from the first volume to the last.
+     *
+     * @param container    The entity that houses the fluid inventory
+     * @param instigator   The instigator of the change
+     * @param fluidType    The type of fluid in the slot after the change, or before it if the slot was emptied
+     * @param slot         The slot number of the fluid inventory whose volume changed
+     * @param volumeBefore The volume before the change
+     * @param volumeAfter  The volume after the change
+     */
+    static void check(EntityRef container, EntityRef instigator, String fluidType, int slot, float volumeBefore, float volumeAfter) {
+        FluidLevelTriggerComponent levelTriggers = container.getComponent(FluidLevelTriggerComponent.class);
+        FluidInventoryComponent fluidInventory = levelTriggers != null ? container.getComponent(FluidInventoryComponent.class) : null;
+        if (fluidInventory == null || slot >= fluidInventory.maximumVolumes.size()) {
+            return;
+        }
+        float maximumVolume = fluidInventory.maximumVolumes.get(slot);
+        int triggerCount = Math.min(levelTriggers.slots.size(), levelTriggers.levels.size());
+        for (int i = 0; i < triggerCount; i++) {
+            if (levelTriggers.slots.get(i) != slot) {
+                continue;
+            }
+            float level = levelTriggers.levels.get(i);
+            boolean reachedBefore = isLevelReached(volumeBefore, level, maximumVolume);
+            boolean reachedAfter = isLevelReached(volumeAfter, level, maximumVolume);
+            if (reachedBefore != reachedAfter) {
+                container.send(new FluidLevelCrossed(instigator, fluidType, slot, level, reachedAfter, volumeAfter));
+            }
+        }
+    }
+
+    /**
+     * Check whether a volume of fluid reaches a level of a {@link FluidLevelTriggerComponent}.
+     *
+     * @param volume        The volume of fluid in the slot
+     * @param level         The level, as a fraction of the maximum volume, or 0 for any fluid at all
+     * @param maximumVolume The maximum volume of the slot
+     * @return              Whether the level is reached
+     */
+    private static boolean isLevelReached(float volume, float level, float maximumVolume) {
+        if (level <= 0) {
+            return volume > FluidUtils.VOLUME_EPSILON;
+        }
+        return volume >= level * maximumVolume - FluidUtils.VOLUME_EPSILON;
+    }
+}
@@ -63,7 +63,12 @@ public interface FluidManager {
     boolean removeFluid(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume);
 
     /**
-     * Transfer fluid from one fluid inventory slot to another.
+     * Transfer fluid from one fluid inventory slot to another. If the destination slot holds a different fluid, the
+     * transfer only happens when the two fluids react, as defined by the {@link FluidReactionRegistry}.
+     * <p>
+     * Between two different entities, the throughput limits of a {@link
+     * org.terasology.fluid.component.FluidInventoryAccessComponent} apply to slots exposed through its ports, as with
+     * {@link #moveFluidThroughPorts}; when several ports expose a slot, the one with the most throughput left is used.
      *
      * @param instigator    The entity that's instigating this action
      * @param from          The entity that houses the source fluid inventory
@@ -74,4 +79,73 @@ public interface FluidManager {
      * @param volume        The volume of fluid being transferred
      */
     float moveFluid(EntityRef instigator, EntityRef from, EntityRef to, int slotFrom, String fluidType, int slotTo, float volume);
+
+    /**
+     * Transfer fluid from one fluid inventory slot to another through the ports of a {@link
+     * org.terasology.fluid.component.FluidInventoryAccessComponent}. The slots must be accessible through the given
+     * ports, and the volume transferred is limited by the throughput left this tick on both ports.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param from          The entity that houses the source fluid inventory
+     * @param outputSide    The name of the output port of the source
+     * @param to            The entity that houses the destination fluid inventory
+     * @param inputSide     The name of the input port of the destination
+     * @param slotFrom      The slot number of the source fluid inventory that's intended to be used
+     * @param fluidType     The type of fluid being transferred
+     * @param slotTo        The slot number of the destination fluid inventory that's intended to be used
+     * @param volume        The volume of fluid being transferred
+     * @return              The amount of fluid that was moved successfully
+     */
+    float moveFluidThroughPorts(EntityRef instigator, EntityRef from, String outputSide, EntityRef to, String inputSide,
+                                int slotFrom, String fluidType, int slotTo, float volume);
+
+    /**
+     * Fill every compatible fluid container item of an item inventory from a fluid inventory slot, in one pass. Items
+     * are filled up to capacity as long as there is fluid left, stacks of filled items are merged, and a single {@link
+     * org.terasology.fluid.event.FluidContainerItemsTransferred} event is sent to the fluid inventory.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory holding the fluid container items
+     * @param container     The entity that houses the fluid inventory
+     * @param slot          The slot number of the fluid inventory that's intended to be drained
+     * @return              The volume of fluid transferred into the items
+     */
+    float fillContainerItems(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot);
+
+    /**
+     * Empty every fluid container item of an item inventory holding the fluid of a fluid inventory slot into that slot,
+     * in one pass. If the slot is empty, the fluid of the first non-empty item is used. Stacks of emptied items are
+     * merged, and a single {@link org.terasology.fluid.event.FluidContainerItemsTransferred} event is sent to the fluid
+     * inventory.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory holding the fluid container items
+     * @param container     The entity that houses the fluid inventory
+     * @param slot          The slot number of the fluid inventory that's intended to be filled
+     * @return              The volume of fluid transferred out of the items
+     */
+    float emptyContainerItems(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot);
+
+    /**
+     * Distribute a fluid from a set of source slots to a set of sink slots in a single pass. Sinks are served in order
+     * of priority; sinks of the same priority share the available fluid in proportion to their weights, and sources are
+     * drained in proportion to what they hold. Every fluid inventory involved is read and saved once, and each slot
+     * that changes gets a single {@link org.terasology.fluid.event.FluidVolumeChangedInInventory} event. Sinks holding
+     * a different fluid are left out, as are slots whose handlers refuse the largest volume they could give or take.
+     *
+     * @param instigator   The entity that's instigating this action
+     * @param fluidType    The type of fluid being distributed
+     * @param distribution The sources and sinks; the volume each of them gave or took is stored back into it
+     * @return             The total volume of fluid that was moved
+     */
+    float distributeFluid(EntityRef instigator, String fluidType, FluidDistribution distribution);
+
+    /**
+     * Write the changes made by the {@link org.terasology.fluid.component.FluidPassiveRateComponent} of a fluid
+     * inventory since it was last updated into its slots. Every other method of the fluid manager does this for the
+     * fluid inventories it works on, so this is only needed by code that changes the slots directly.
+     *
+     * @param container The entity that houses the fluid inventory
+     */
+    void settlePassiveRates(EntityRef container);
 }
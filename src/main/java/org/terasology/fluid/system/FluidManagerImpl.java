@@ -2,29 +2,222 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.fluid.system;
 
+import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
-import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.engine.registry.CoreRegistry;
+import org.terasology.engine.registry.In;
 import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidAccessMask;
 import org.terasology.fluid.component.FluidComponent;
 import org.terasology.fluid.component.FluidContainerItemComponent;
+import org.terasology.fluid.component.FluidInventoryAccessComponent;
 import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidPassiveRateComponent;
+import org.terasology.fluid.diagnostics.FluidAuditLog;
+import org.terasology.fluid.diagnostics.FluidAuditRecorder;
+import org.terasology.fluid.diagnostics.FluidProfiler;
 import org.terasology.fluid.event.BeforeFluidPutInInventory;
 import org.terasology.fluid.event.BeforeFluidRemovedFromInventory;
+import org.terasology.fluid.event.FluidContainerItemsTransferred;
 import org.terasology.fluid.event.FluidVolumeChangedInInventory;
-
+import org.terasology.fluid.event.FluidsMixedInInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.module.inventory.systems.InventoryManager;
+import org.terasology.module.inventory.systems.InventoryUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Handles the adding, removing and moving of fluids. An implementation of the FluidManager interface.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 @Share(FluidManager.class)
-public class FluidManagerImpl extends BaseComponentSystem implements FluidManager {
+public class FluidManagerImpl extends BaseComponentSystem implements FluidManager, UpdateSubscriberSystem {
+    @In
+    private FluidReactionRegistry fluidReactionRegistry;
+
+    @In
+    private FluidEventGate fluidEventGate;
+
+    @In
+    private FluidAuditRecorder fluidAuditRecorder;
+
+    @In
+    private FluidProfiler fluidProfiler;
+
+    @In
+    private InventoryManager inventoryManager;
+
+    @In
+    private Time time;
+
+    /** Whether a veto handler refused the current operation, reported to the flight recorder */
+    private boolean vetoedDuringOperation;
+
+    /** The number of ticks since the system started, used to refill the port throughput buckets */
+    private long tick;
+    private Map<EntityRef, Map<String, TokenBucket>> inputBuckets = new HashMap<>();
+    private Map<EntityRef, Map<String, TokenBucket>> outputBuckets = new HashMap<>();
+
+    @Override
+    public void update(float delta) {
+        tick++;
+    }
+
+    @Override
+    public void shutdown() {
+        inputBuckets.clear();
+        outputBuckets.clear();
+    }
+
+    /**
+     * Forgets the throughput used on the ports of an entity when its ports are redefined.
+     *
+     * @param event  Event that indicates the change
+     * @param entity The entity whose ports changed
+     */
+    @ReceiveEvent(components = FluidInventoryAccessComponent.class)
+    public void onPortsChanged(OnChangedComponent event, EntityRef entity) {
+        inputBuckets.remove(entity);
+        outputBuckets.remove(entity);
+    }
+
+    /**
+     * Forgets the throughput used on the ports of an entity when it is unloaded or destroyed.
+     *
+     * @param event  Event that indicates the deactivation
+     * @param entity The entity whose ports are going away
+     */
+    @ReceiveEvent(components = FluidInventoryAccessComponent.class)
+    public void onPortsDeactivated(BeforeDeactivateComponent event, EntityRef entity) {
+        inputBuckets.remove(entity);
+        outputBuckets.remove(entity);
+    }
+
+    /**
+     * Starts the passive rates of a fluid inventory from the current time when it is loaded or created, so that the
+     * time it spent unloaded doesn't count.
+     *
+     * @param event     Event that indicates the activation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidPassiveRateComponent.class, FluidInventoryComponent.class})
+    public void onPassiveRatesActivated(OnActivatedComponent event, EntityRef container) {
+        FluidPassiveRateComponent passiveRates = container.getComponent(FluidPassiveRateComponent.class);
+        long now = time.getGameTimeInMs();
+        passiveRates.lastUpdates.clear();
+        for (int slot = 0; slot < passiveRates.rates.size(); slot++) {
+            passiveRates.lastUpdates.add(now);
+        }
+        container.saveComponent(passiveRates);
+    }
+
+    /**
+     * Writes the changes made by the passive rates of a fluid inventory into its slots before it is unloaded.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidPassiveRateComponent.class, FluidInventoryComponent.class})
+    public void onPassiveRatesDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        settlePassiveRates(container);
+    }
+
+    /**
+     * Write the changes made by the passive rates of a fluid inventory since it was last updated into its slots. Only the
+     * clocks of the slots that change are moved on, so that a slot whose change is still too small to write keeps
+     * accruing; the clock of a slot changed by anything else is moved on by {@link #markPassiveRatesCurrent}.
+     *
+     * @param container The entity that houses the fluid inventory
+     */
+    @Override
+    public void settlePassiveRates(EntityRef container) {
+        FluidPassiveRateComponent passiveRates = container.getComponent(FluidPassiveRateComponent.class);
+        if (passiveRates == null) {
+            return;
+        }
+        long now = time.getGameTimeInMs();
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            return;
+        }
+
+        // Work out every slot before moving the clocks on, as listeners of the changes may read or change the slots
+        // right away.
+        int slotCount = Math.min(passiveRates.rates.size(), fluidInventory.fluidSlots.size());
+        String[] fluidTypes = new String[slotCount];
+        float[] changes = new float[slotCount];
+        boolean[] settled = new boolean[slotCount];
+        boolean changed = false;
+        for (int slot = 0; slot < slotCount; slot++) {
+            FluidComponent fluid = fluidInventory.fluidSlots.get(slot).getComponent(FluidComponent.class);
+            String presentFluid = fluid != null ? fluid.fluidType : null;
+            fluidTypes[slot] = FluidUtils.getPassiveFluidType(passiveRates, slot, presentFluid);
+            float volume = fluid != null ? fluid.volume : 0;
+            float passiveVolume = FluidUtils.getPassiveVolume(passiveRates, slot, presentFluid, volume,
+                    fluidInventory.maximumVolumes.get(slot), now);
+            changes[slot] = passiveVolume - volume;
+            settled[slot] = fluidTypes[slot] != null && changes[slot] != 0
+                    && (fluid == null || fluid.fluidType.equals(fluidTypes[slot]))
+                    && (fluid != null || passiveVolume > FluidUtils.VOLUME_EPSILON);
+            changed |= settled[slot];
+        }
+        if (!changed) {
+            return;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (settled[slot]) {
+                setPassiveClock(passiveRates, slot, now);
+            }
+        }
+        container.saveComponent(passiveRates);
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            EntityRef fluidEntity = fluidInventory.fluidSlots.get(slot);
+            FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+            float volumeBefore = fluid != null ? fluid.volume : 0;
+            float volumeAfter = Math.max(0, Math.min(fluidInventory.maximumVolumes.get(slot), volumeBefore + changes[slot]));
+            if (!settled[slot] || (fluid != null && !fluid.fluidType.equals(fluidTypes[slot]))
+                    || (fluid == null && volumeAfter <= FluidUtils.VOLUME_EPSILON)) {
+                continue;
+            }
+
+            if (volumeAfter <= FluidUtils.VOLUME_EPSILON) {
+                fluidEntity.destroy();
+                fluidInventory.fluidSlots.set(slot, EntityRef.NULL);
+                container.saveComponent(fluidInventory);
+                volumeAfter = 0;
+            } else if (fluid == null) {
+                EntityManager entityManager = CoreRegistry.get(EntityManager.class);
+
+                FluidComponent fluidComponent = new FluidComponent();
+                fluidComponent.fluidType = fluidTypes[slot];
+                fluidComponent.volume = volumeAfter;
+
+                EntityRef newFluidEntity = entityManager.create(fluidComponent);
+                newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
+                fluidInventory.fluidSlots.set(slot, newFluidEntity);
+                container.saveComponent(fluidInventory);
+            } else {
+                fluid.volume = volumeAfter;
+                fluidEntity.saveComponent(fluid);
+            }
+            sendVolumeChanged(container, EntityRef.NULL, fluidTypes[slot], slot, volumeBefore, volumeAfter);
+        }
+    }
+
     /**
      * Adds a fluid to all fluid inventory slots.
      *
@@ -36,6 +229,19 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
      */
     @Override
     public boolean addFluid(EntityRef instigator, EntityRef container, String fluidType, float volume) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        boolean added = addFluidToAnySlot(instigator, container, fluidType, volume);
+        fluidProfiler.endOperation(profile, "addFluid", container, -1, EntityRef.NULL, -1, fluidType, volume, 0, added,
+                vetoedDuringOperation);
+        return added;
+    }
+
+    /**
+     * See {@link #addFluid(EntityRef, EntityRef, String, float)}.
+     */
+    private boolean addFluidToAnySlot(EntityRef instigator, EntityRef container, String fluidType, float volume) {
         FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
         if (fluidInventory == null) {
             return false;
@@ -43,27 +249,31 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
 
         List<EntityRef> fluidSlots = fluidInventory.fluidSlots;
         List<Float> maximumVolumes = fluidInventory.maximumVolumes;
+        float remaining = volume;
+        boolean added = false;
+
+        // Top up the slots already holding this fluid first, then spill whatever doesn't fit into empty slots.
         for (int i = 0; i < fluidSlots.size(); i++) {
             EntityRef fluidEntity = fluidSlots.get(i);
             FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
-            if (fluid != null && fluid.fluidType.equals(fluidType)) {
-                float maximumVolume = maximumVolumes.get(i);
-
-                // Refill the FluidComponent (fluid inventory) to max using just enough of the provided fluid. This will still
-                // empty the item used to fill the inventory slot though.
-                if (fluid.volume <= maximumVolume) {
-                    float oldVolume = fluid.volume;
+            float maximumVolume = maximumVolumes.get(i);
+            if (fluid != null && fluid.fluidType.equals(fluidType) && fluid.volume < maximumVolume) {
+                float oldVolume = fluid.volume;
 
-                    // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
-                    fluid.volume = Math.min(maximumVolume, fluid.volume + volume);
+                // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
+                fluid.volume = Math.min(maximumVolume, fluid.volume + remaining);
 
-                    float newVolume = fluid.volume;
+                float newVolume = fluid.volume;
 
-                    fluidEntity.saveComponent(fluid);
-                    container.saveComponent(fluidInventory);
+                fluidEntity.saveComponent(fluid);
+                container.saveComponent(fluidInventory);
 
-                    container.send(new FluidVolumeChangedInInventory(instigator, fluidType, i, oldVolume, newVolume));
+                sendVolumeChanged(container, instigator, fluidType, i, oldVolume, newVolume);
+                audit(FluidAuditLog.ADD, instigator, EntityRef.NULL, -1, container, i, fluidType, remaining, newVolume - oldVolume, false);
 
+                added = true;
+                remaining -= newVolume - oldVolume;
+                if (remaining <= FluidUtils.VOLUME_EPSILON) {
                     return true;
                 }
             }
@@ -77,30 +287,34 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
             if (fluid == null) {
                 float maximumVolume = maximumVolumes.get(i);
 
-                BeforeFluidPutInInventory beforePut = new BeforeFluidPutInInventory(instigator, fluidType, volume, i);
-                container.send(beforePut);
-                if (!beforePut.isConsumed()) {
+                if (!isPutVetoed(instigator, container, fluidType, remaining, i)) {
                     EntityManager entityManager = CoreRegistry.get(EntityManager.class);
 
                     FluidComponent fluidComponent = new FluidComponent();
                     fluidComponent.fluidType = fluidType;
 
                     // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
-                    fluidComponent.volume = Math.min(maximumVolume, volume);
+                    fluidComponent.volume = Math.min(maximumVolume, remaining);
 
                     EntityRef newFluidEntity = entityManager.create(fluidComponent);
-                    newFluidEntity.addComponent(new NetworkComponent());
+                    newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
                     fluidSlots.set(i, newFluidEntity);
                     container.saveComponent(fluidInventory);
 
-                    container.send(new FluidVolumeChangedInInventory(instigator, fluidType, i, 0, volume));
+                    sendVolumeChanged(container, instigator, fluidType, i, 0, fluidComponent.volume);
+                    audit(FluidAuditLog.ADD, instigator, EntityRef.NULL, -1, container, i, fluidType, remaining,
+                            fluidComponent.volume, false);
 
-                    return true;
+                    added = true;
+                    remaining -= fluidComponent.volume;
+                    if (remaining <= FluidUtils.VOLUME_EPSILON) {
+                        return true;
+                    }
                 }
             }
         }
 
-        return false;
+        return added;
     }
 
     /**
@@ -115,6 +329,19 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
      */
     @Override
     public boolean addFluid(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        boolean added = addFluidToSlot(instigator, container, slot, fluidType, volume);
+        fluidProfiler.endOperation(profile, "addFluid", container, slot, EntityRef.NULL, -1, fluidType, volume, 0, added,
+                vetoedDuringOperation);
+        return added;
+    }
+
+    /**
+     * See {@link #addFluid(EntityRef, EntityRef, int, String, float)}.
+     */
+    private boolean addFluidToSlot(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume) {
         FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
         if (fluidInventory == null) {
             return false;
@@ -127,7 +354,7 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
 
             // Refill the FluidComponent (fluid inventory) to max using just enough of the provided fluid. This will still
             // empty the item used to fill the inventory though.
-            if (fluid.volume <= maximumVolume) {
+            if (fluid.volume < maximumVolume) {
                 float oldVolume = fluid.volume;
 
                 // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
@@ -137,7 +364,8 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
                 fluidEntity.saveComponent(fluid);
                 container.saveComponent(fluidInventory);
 
-                container.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, oldVolume, newVolume));
+                sendVolumeChanged(container, instigator, fluidType, slot, oldVolume, newVolume);
+                audit(FluidAuditLog.ADD, instigator, EntityRef.NULL, -1, container, slot, fluidType, volume, newVolume - oldVolume, false);
 
                 return true;
             }
@@ -147,9 +375,7 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
         if (fluid == null) {
             float maximumVolume = fluidInventory.maximumVolumes.get(slot);
 
-            BeforeFluidPutInInventory beforePut = new BeforeFluidPutInInventory(instigator, fluidType, volume, slot);
-            container.send(beforePut);
-            if (!beforePut.isConsumed()) {
+            if (!isPutVetoed(instigator, container, fluidType, volume, slot)) {
                 EntityManager entityManager = CoreRegistry.get(EntityManager.class);
 
                 FluidComponent fluidComponent = new FluidComponent();
@@ -159,11 +385,12 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
                 fluidComponent.volume = Math.min(maximumVolume, volume);
 
                 EntityRef newFluidEntity = entityManager.create(fluidComponent);
-                newFluidEntity.addComponent(new NetworkComponent());
+                newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
                 fluidInventory.fluidSlots.set(slot, newFluidEntity);
                 container.saveComponent(fluidInventory);
 
-                container.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, 0, volume));
+                sendVolumeChanged(container, instigator, fluidType, slot, 0, fluidComponent.volume);
+                audit(FluidAuditLog.ADD, instigator, EntityRef.NULL, -1, container, slot, fluidType, volume, fluidComponent.volume, false);
 
                 return true;
             }
@@ -186,6 +413,20 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
     @Override
     public boolean addFluidFromHolder(EntityRef instigator, EntityRef inventory,
                                       EntityRef holder, int slot, String fluidType, float volume) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(inventory);
+        boolean added = addFluidFromHolderToSlot(instigator, inventory, holder, slot, fluidType, volume);
+        fluidProfiler.endOperation(profile, "addFluidFromHolder", inventory, slot, holder, -1, fluidType, volume, 0, added,
+                vetoedDuringOperation);
+        return added;
+    }
+
+    /**
+     * See {@link #addFluidFromHolder(EntityRef, EntityRef, EntityRef, int, String, float)}.
+     */
+    private boolean addFluidFromHolderToSlot(EntityRef instigator, EntityRef inventory,
+                                             EntityRef holder, int slot, String fluidType, float volume) {
         FluidInventoryComponent fluidInventory = inventory.getComponent(FluidInventoryComponent.class);
         FluidContainerItemComponent fluidHolder = holder.getComponent(FluidContainerItemComponent.class);
 
@@ -200,7 +441,7 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
 
             // Refill the FluidComponent (fluid inventory) to max using just enough of the provided fluid. The fluid holder
             // used will be emptied by the transferred amount accordingly.
-            if (fluid.volume <= maximumVolume) {
+            if (fluid.volume < maximumVolume) {
                 float oldVolume = fluid.volume;
 
                 // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
@@ -214,7 +455,8 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
                 inventory.saveComponent(fluidInventory);
                 holder.saveComponent(fluidHolder);
 
-                inventory.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, oldVolume, newVolume));
+                sendVolumeChanged(inventory, instigator, fluidType, slot, oldVolume, newVolume);
+                audit(FluidAuditLog.ADD, instigator, holder, -1, inventory, slot, fluidType, volume, newVolume - oldVolume, false);
 
                 return true;
             }
@@ -225,9 +467,7 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
         if (fluid == null) {
             float maximumVolume = fluidInventory.maximumVolumes.get(slot);
 
-            BeforeFluidPutInInventory beforePut = new BeforeFluidPutInInventory(instigator, fluidType, volume, slot);
-            inventory.send(beforePut);
-            if (!beforePut.isConsumed()) {
+            if (!isPutVetoed(instigator, inventory, fluidType, volume, slot)) {
                 EntityManager entityManager = CoreRegistry.get(EntityManager.class);
 
                 FluidComponent fluidComponent = new FluidComponent();
@@ -236,16 +476,17 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
                 // Add the fluid into this fluid inventory slot. If it goes over the max, clamp the value to the maximum.
                 fluidComponent.volume = Math.min(maximumVolume, volume);
 
-                // Remove the fluid from the fluid holder. If it goes under 0, clamp the value to the minimum.
-                fluidHolder.volume = Math.max(0f, fluidHolder.volume - maximumVolume);
+                // Remove the fluid actually inserted from the fluid holder. If it goes under 0, clamp the value to the minimum.
+                fluidHolder.volume = Math.max(0f, fluidHolder.volume - fluidComponent.volume);
 
                 EntityRef newFluidEntity = entityManager.create(fluidComponent);
-                newFluidEntity.addComponent(new NetworkComponent());
+                newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
                 fluidInventory.fluidSlots.set(slot, newFluidEntity);
                 inventory.saveComponent(fluidInventory);
                 holder.saveComponent(fluidHolder);
 
-                inventory.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, 0, volume));
+                sendVolumeChanged(inventory, instigator, fluidType, slot, 0, fluidComponent.volume);
+                audit(FluidAuditLog.ADD, instigator, holder, -1, inventory, slot, fluidType, volume, fluidComponent.volume, false);
 
                 return true;
             }
@@ -265,6 +506,19 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
      */
     @Override
     public boolean removeFluid(EntityRef instigator, EntityRef container, String fluidType, float volume) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        boolean removed = removeFluidFromAnySlot(instigator, container, fluidType, volume);
+        fluidProfiler.endOperation(profile, "removeFluid", container, -1, EntityRef.NULL, -1, fluidType, volume, 0, removed,
+                vetoedDuringOperation);
+        return removed;
+    }
+
+    /**
+     * See {@link #removeFluid(EntityRef, EntityRef, String, float)}.
+     */
+    private boolean removeFluidFromAnySlot(EntityRef instigator, EntityRef container, String fluidType, float volume) {
         FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
         if (fluidInventory == null) {
             return false;
@@ -272,7 +526,7 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
 
         List<EntityRef> fluidSlots = fluidInventory.fluidSlots;
         for (int i = 0; i < fluidSlots.size(); i++) {
-            if (removeFluid(instigator, container, i, fluidType, volume)) {
+            if (removeFluidFromSlot(instigator, container, i, fluidType, volume)) {
                 return true;
             }
         }
@@ -292,6 +546,19 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
      */
     @Override
     public boolean removeFluid(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        boolean removed = removeFluidFromSlot(instigator, container, slot, fluidType, volume);
+        fluidProfiler.endOperation(profile, "removeFluid", container, slot, EntityRef.NULL, -1, fluidType, volume, 0, removed,
+                vetoedDuringOperation);
+        return removed;
+    }
+
+    /**
+     * See {@link #removeFluid(EntityRef, EntityRef, int, String, float)}.
+     */
+    private boolean removeFluidFromSlot(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume) {
         FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
         if (fluidInventory == null) {
             return false;
@@ -300,10 +567,9 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
         EntityRef fluidEntity = fluidInventory.fluidSlots.get(slot);
         FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
         if (fluid != null && fluid.fluidType.equals(fluidType) && fluid.volume >= volume) {
-            BeforeFluidRemovedFromInventory beforePut = new BeforeFluidRemovedFromInventory(instigator, fluidType, volume, slot);
-            container.send(beforePut);
-            if (!beforePut.isConsumed()) {
+            if (!isRemoveVetoed(instigator, container, fluidType, volume, slot)) {
                 removeFluidFromContainer(instigator, container, fluidType, slot, volume, fluidInventory, fluidEntity, fluid);
+                audit(FluidAuditLog.REMOVE, instigator, container, slot, EntityRef.NULL, -1, fluidType, volume, volume, false);
                 return true;
             }
         }
@@ -311,6 +577,136 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
         return false;
     }
 
+    /**
+     * Ask the handlers of the container whether fluid may be put into one of its slots. The event is only constructed
+     * and sent if the container has a component set that any {@link BeforeFluidPutInInventory} handler listens to.
+     *
+     * @param instigator The instigator of this action
+     * @param container  The container into which the fluid is being put
+     * @param fluidType  The type of fluid being put
+     * @param volume     The volume of fluid being put
+     * @param slot       The slot number of the fluid inventory into which the fluid is being put
+     * @return           Whether a handler refused the action
+     */
+    private boolean isPutVetoed(EntityRef instigator, EntityRef container, String fluidType, float volume, int slot) {
+        if (fluidEventGate != null && !fluidEventGate.hasPutVetoHandlers(container)) {
+            return false;
+        }
+        BeforeFluidPutInInventory beforePut = new BeforeFluidPutInInventory(instigator, fluidType, volume, slot);
+        container.send(beforePut);
+        if (beforePut.isConsumed()) {
+            vetoedDuringOperation = true;
+            audit(FluidAuditLog.PUT_CHECK, instigator, EntityRef.NULL, -1, container, slot, fluidType, volume, 0, true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ask the handlers of the container whether fluid may be removed from one of its slots. The event is only
+     * constructed and sent if the container has a component set that any {@link BeforeFluidRemovedFromInventory}
+     * handler listens to.
+     *
+     * @param instigator The instigator of this action
+     * @param container  The container from which the fluid is being removed
+     * @param fluidType  The type of fluid being removed
+     * @param volume     The volume of fluid being removed
+     * @param slot       The slot number of the fluid inventory from which the fluid is being removed
+     * @return           Whether a handler refused the action
+     */
+    private boolean isRemoveVetoed(EntityRef instigator, EntityRef container, String fluidType, float volume, int slot) {
+        if (fluidEventGate != null && !fluidEventGate.hasRemoveVetoHandlers(container)) {
+            return false;
+        }
+        BeforeFluidRemovedFromInventory beforeRemoved = new BeforeFluidRemovedFromInventory(instigator, fluidType, volume, slot);
+        container.send(beforeRemoved);
+        if (beforeRemoved.isConsumed()) {
+            vetoedDuringOperation = true;
+            audit(FluidAuditLog.REMOVE_CHECK, instigator, container, slot, EntityRef.NULL, -1, fluidType, volume, 0, true);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tell the listeners of a container that the volume in one of its slots changed, and send a
+     * {@link org.terasology.fluid.event.FluidLevelCrossed} event for every level of its
+     * {@link org.terasology.fluid.component.FluidLevelTriggerComponent} the change crossed.
+     *
+     * @param container    The entity that houses the fluid inventory
+     * @param instigator   The instigator of this action
+     * @param fluidType    The type of fluid whose volume changed
+     * @param slot         The slot number of the fluid inventory whose volume changed
+     * @param volumeBefore The volume before the change
+     * @param volumeAfter  The volume after the change
+     */
+    private void sendVolumeChanged(EntityRef container, EntityRef instigator, String fluidType, int slot, float volumeBefore,
+                                   float volumeAfter) {
+        markPassiveRatesCurrent(container, slot);
+        container.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, volumeBefore, volumeAfter));
+        FluidLevelTriggers.check(container, instigator, fluidType, slot, volumeBefore, volumeAfter);
+    }
+
+    /**
+     * Move the clock of the passive rate of a fluid inventory slot on to the current time after the slot was changed.
+     * {@link #settlePassiveRates} leaves the clock of a slot alone when its rate changed nothing yet, so without this the
+     * rate would be applied to the new contents of the slot over time that had already passed.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param slot      The slot number of the fluid inventory that was changed
+     */
+    private void markPassiveRatesCurrent(EntityRef container, int slot) {
+        FluidPassiveRateComponent passiveRates = container.getComponent(FluidPassiveRateComponent.class);
+        if (passiveRates == null || slot >= passiveRates.rates.size()) {
+            return;
+        }
+        if (setPassiveClock(passiveRates, slot, time.getGameTimeInMs())) {
+            container.saveComponent(passiveRates);
+        }
+    }
+
+    /**
+     * Move the clock of the passive rate of a fluid inventory slot on to the given time, adding the clocks of slots
+     * that don't have one yet.
+     *
+     * @param passiveRates The passive rates of the fluid inventory
+     * @param slot         The slot number of the fluid inventory
+     * @param now          The current game time, in milliseconds
+     * @return             Whether the clock was moved on
+     */
+    private static boolean setPassiveClock(FluidPassiveRateComponent passiveRates, int slot, long now) {
+        while (passiveRates.lastUpdates.size() <= slot) {
+            passiveRates.lastUpdates.add(now);
+        }
+        if (passiveRates.lastUpdates.get(slot) >= now) {
+            return false;
+        }
+        passiveRates.lastUpdates.set(slot, now);
+        return true;
+    }
+
+    /**
+     * Record an operation in the audit log, if auditing is enabled.
+     *
+     * @param operation       The kind of operation, one of the operation constants of {@link FluidAuditLog}
+     * @param instigator      The instigator of this action
+     * @param source          The entity the fluid is taken from, or {@link EntityRef#NULL} if it's created
+     * @param sourceSlot      The slot of the source fluid inventory, or -1 if not applicable
+     * @param target          The entity the fluid is put into, or {@link EntityRef#NULL} if it's destroyed
+     * @param targetSlot      The slot of the target fluid inventory, or -1 if not applicable
+     * @param fluidType       The type of fluid involved
+     * @param requestedVolume The volume the caller asked for
+     * @param appliedVolume   The volume that actually changed hands
+     * @param vetoed          Whether a veto handler refused the operation
+     */
+    private void audit(byte operation, EntityRef instigator, EntityRef source, int sourceSlot, EntityRef target, int targetSlot,
+                       String fluidType, float requestedVolume, float appliedVolume, boolean vetoed) {
+        if (fluidAuditRecorder != null && fluidAuditRecorder.isEnabled()) {
+            fluidAuditRecorder.record(operation, instigator, source, sourceSlot, target, targetSlot, fluidType,
+                    requestedVolume, appliedVolume, vetoed);
+        }
+    }
+
     /**
      * Remove a certain volume of fluid from a particular fluid container.
      *
@@ -327,7 +723,8 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
                                           FluidInventoryComponent fluidInventory, EntityRef fluidEntity, FluidComponent fluid) {
         float volumeBefore = fluid.volume;
         float volumeAfter;
-        if (fluid.volume == volume) {
+        // Compare with a tolerance, as volumes that should cancel out rarely do exactly after float arithmetic.
+        if (fluid.volume - volume <= FluidUtils.VOLUME_EPSILON) {
             fluidEntity.destroy();
             fluidInventory.fluidSlots.set(slot, EntityRef.NULL);
             volumeAfter = 0;
@@ -337,11 +734,12 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
             volumeAfter = fluid.volume;
         }
         container.saveComponent(fluidInventory);
-        container.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, volumeBefore, volumeAfter));
+        sendVolumeChanged(container, instigator, fluidType, slot, volumeBefore, volumeAfter);
     }
 
     /**
-     * Transfer fluid from one fluid inventory slot to another.
+     * Transfer fluid from one fluid inventory slot to another. Between two different entities, the transfer is limited
+     * by the throughput left on the ports the slots are exposed through, see {@link #findPortBucket}.
      *
      * @param instigator    The entity that's instigating this action
      * @param from          The entity that houses the source fluid inventory
@@ -354,6 +752,64 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
      */
     @Override
     public float moveFluid(EntityRef instigator, EntityRef from, EntityRef to, int slotFrom, String fluidType, int slotTo, float volume) {
+        TokenBucket outputBucket = null;
+        TokenBucket inputBucket = null;
+        if (!from.equals(to)) {
+            outputBucket = findPortBucket(outputBuckets, from, slotFrom, true);
+            inputBucket = findPortBucket(inputBuckets, to, slotTo, false);
+        }
+        return moveFluidWithinLimits(instigator, from, to, slotFrom, fluidType, slotTo, volume, outputBucket, inputBucket);
+    }
+
+    /**
+     * Transfer fluid from one fluid inventory slot to another, within the throughput left on the given ports.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param from          The entity that houses the source fluid inventory
+     * @param to            The entity that houses the destination fluid inventory
+     * @param slotFrom      The slot number of the source fluid inventory that's intended to be used
+     * @param fluidType     The type of fluid being transferred
+     * @param slotTo        The slot number of the destination fluid inventory that's intended to be used
+     * @param volume        The volume of fluid being transferred
+     * @param outputBucket  The throughput bucket of the output port of the source, or null if it's unlimited
+     * @param inputBucket   The throughput bucket of the input port of the destination, or null if it's unlimited
+     * @return              The amount of fluid that was moved successfully
+     */
+    private float moveFluidWithinLimits(EntityRef instigator, EntityRef from, EntityRef to, int slotFrom, String fluidType, int slotTo,
+                                        float volume, TokenBucket outputBucket, TokenBucket inputBucket) {
+        float allowedVolume = volume;
+        if (outputBucket != null) {
+            allowedVolume = Math.min(allowedVolume, outputBucket.getAvailable(tick));
+        }
+        if (inputBucket != null) {
+            allowedVolume = Math.min(allowedVolume, inputBucket.getAvailable(tick));
+        }
+        if (allowedVolume <= 0) {
+            return 0;
+        }
+
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(from);
+        settlePassiveRates(to);
+        float moved = moveFluidBetweenSlots(instigator, from, to, slotFrom, fluidType, slotTo, allowedVolume);
+        fluidProfiler.endOperation(profile, "moveFluid", from, slotFrom, to, slotTo, fluidType, volume, moved, moved > 0,
+                vetoedDuringOperation);
+
+        if (outputBucket != null) {
+            outputBucket.consume(moved);
+        }
+        if (inputBucket != null) {
+            inputBucket.consume(moved);
+        }
+        return moved;
+    }
+
+    /**
+     * See {@link #moveFluid(EntityRef, EntityRef, EntityRef, int, String, int, float)}.
+     */
+    private float moveFluidBetweenSlots(EntityRef instigator, EntityRef from, EntityRef to, int slotFrom, String fluidType, int slotTo,
+                                        float volume) {
         if (volume <= 0) {
             return 0;
         }
@@ -371,14 +827,20 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
 
         // Ignore the command when either:
         // 1. There is no fluid in the from entity, or is of different type
-        // 2. There is a fluid in the to entity of a different type
-        // 3. The volume in the from is lower than the volume requested to be moved
-        if (fluidFrom == null || !fluidFrom.fluidType.equals(fluidType)
-                || (fluidTo != null && !fluidTo.fluidType.equals(fluidType))
-                || fluidFrom.volume < volume) {
+        // 2. The volume in the from is lower than the volume requested to be moved
+        if (fluidFrom == null || !fluidFrom.fluidType.equals(fluidType) || fluidFrom.volume < volume) {
             return 0;
         }
 
+        // A fluid of a different type in the to entity is only accepted if the two fluids react with each other.
+        FluidReaction reaction = null;
+        if (fluidTo != null && !fluidTo.fluidType.equals(fluidType)) {
+            reaction = fluidReactionRegistry != null ? fluidReactionRegistry.getReaction(fluidType, fluidTo.fluidType) : null;
+            if (reaction == null) {
+                return 0;
+            }
+        }
+
         float maximumTargetVolume = fluidInventoryTo.maximumVolumes.get(slotTo);
         float volumeToMove;
         if (fluidTo == null) {
@@ -387,22 +849,37 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
             volumeToMove = Math.min(volume, maximumTargetVolume - fluidTo.volume);
         }
 
-        BeforeFluidRemovedFromInventory beforeRemoved = new BeforeFluidRemovedFromInventory(instigator, fluidType, volumeToMove, slotFrom);
-        from.send(beforeRemoved);
-        if (beforeRemoved.isConsumed()) {
+        // A full destination accepts nothing, which must not reach the vetoes nor convert a reacting slot for free.
+        if (volumeToMove <= 0) {
+            return 0;
+        }
+
+        if (isRemoveVetoed(instigator, from, fluidType, volumeToMove, slotFrom)) {
             return 0;
         }
 
         if (fluidTo == null) {
-            BeforeFluidPutInInventory beforePut = new BeforeFluidPutInInventory(instigator, fluidType, volumeToMove, slotTo);
-            to.send(beforePut);
-            if (beforePut.isConsumed()) {
+            if (isPutVetoed(instigator, to, fluidType, volumeToMove, slotTo)) {
+                return 0;
+            }
+        } else if (reaction != null) {
+            // The slot ends up holding a different fluid, so give handlers a chance to refuse the result.
+            float resultVolume = Math.min(maximumTargetVolume, (fluidTo.volume + volumeToMove) * reaction.getYield());
+            if (isPutVetoed(instigator, to, reaction.getResultFluid(), resultVolume, slotTo)) {
                 return 0;
             }
         }
 
         removeFluidFromContainer(instigator, from, fluidType, slotFrom, volumeToMove, fluidInventoryFrom, fluidEntityFrom, fluidFrom);
 
+        if (reaction != null) {
+            mixFluid(instigator, to, slotTo, volumeToMove, reaction, fluidInventoryTo, fluidEntityTo, fluidTo);
+            audit(FluidAuditLog.MOVE, instigator, from, slotFrom, to, slotTo, fluidType, volume, volumeToMove, false);
+            return volumeToMove;
+        }
+
+        float volumeBeforeTo;
+        float volumeAfterTo;
         if (fluidTo == null) {
             EntityManager entityManager = CoreRegistry.get(EntityManager.class);
 
@@ -411,14 +888,700 @@ public class FluidManagerImpl extends BaseComponentSystem implements FluidManage
             fluidComponent.volume = volumeToMove;
 
             EntityRef newFluidEntity = entityManager.create(fluidComponent);
-            newFluidEntity.addComponent(new NetworkComponent());
+            newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
             fluidInventoryTo.fluidSlots.set(slotTo, newFluidEntity);
             to.saveComponent(fluidInventoryTo);
+            volumeBeforeTo = 0;
+            volumeAfterTo = volumeToMove;
         } else {
+            volumeBeforeTo = fluidTo.volume;
             fluidTo.volume += volumeToMove;
             fluidEntityTo.saveComponent(fluidTo);
+            volumeAfterTo = fluidTo.volume;
         }
 
+        // The source side has already been notified by removeFluidFromContainer, so listeners tracking volumes (such as
+        // the spatial index) need the destination side as well.
+        sendVolumeChanged(to, instigator, fluidType, slotTo, volumeBeforeTo, volumeAfterTo);
+        audit(FluidAuditLog.MOVE, instigator, from, slotFrom, to, slotTo, fluidType, volume, volumeToMove, false);
+
         return volumeToMove;
     }
+
+    /**
+     * Transfer fluid from one fluid inventory slot to another through the ports of the two entities, within the
+     * throughput the ports have left this tick.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param from          The entity that houses the source fluid inventory
+     * @param outputSide    The name of the output port of the source
+     * @param to            The entity that houses the destination fluid inventory
+     * @param inputSide     The name of the input port of the destination
+     * @param slotFrom      The slot number of the source fluid inventory that's intended to be used
+     * @param fluidType     The type of fluid being transferred
+     * @param slotTo        The slot number of the destination fluid inventory that's intended to be used
+     * @param volume        The volume of fluid being transferred
+     * @return              The amount of fluid that was moved successfully
+     */
+    @Override
+    public float moveFluidThroughPorts(EntityRef instigator, EntityRef from, String outputSide, EntityRef to, String inputSide,
+                                       int slotFrom, String fluidType, int slotTo, float volume) {
+        FluidInventoryAccessComponent fromAccess = from.getComponent(FluidInventoryAccessComponent.class);
+        FluidInventoryAccessComponent toAccess = to.getComponent(FluidInventoryAccessComponent.class);
+        if (fromAccess == null || toAccess == null
+                || !fromAccess.getAccessMask().canOutput(outputSide, slotFrom)
+                || !toAccess.getAccessMask().canInput(inputSide, slotTo)) {
+            return 0;
+        }
+
+        TokenBucket outputBucket = getBucket(outputBuckets, from, outputSide, fromAccess.outputRate.get(outputSide));
+        TokenBucket inputBucket = getBucket(inputBuckets, to, inputSide, toAccess.inputRate.get(inputSide));
+        return moveFluidWithinLimits(instigator, from, to, slotFrom, fluidType, slotTo, volume, outputBucket, inputBucket);
+    }
+
+    /**
+     * Fill every compatible fluid container item of an item inventory from a fluid inventory slot, in one pass.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory holding the fluid container items
+     * @param container     The entity that houses the fluid inventory
+     * @param slot          The slot number of the fluid inventory that's intended to be drained
+     * @return              The volume of fluid transferred into the items
+     */
+    @Override
+    public float fillContainerItems(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        FluidComponent fluid = getFluidInSlot(container, slot);
+        String fluidType = fluid != null ? fluid.fluidType : null;
+        float filled = fluid != null ? fillContainerItemsFromSlot(instigator, itemInventory, container, slot, fluid) : 0;
+        fluidProfiler.endOperation(profile, "fillContainerItems", container, slot, itemInventory, -1, fluidType, 0, filled, filled > 0,
+                vetoedDuringOperation);
+        return filled;
+    }
+
+    /**
+     * See {@link #fillContainerItems(EntityRef, EntityRef, EntityRef, int)}.
+     */
+    private float fillContainerItemsFromSlot(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot,
+                                             FluidComponent fluid) {
+        String fluidType = fluid.fluidType;
+
+        // Plan the whole transfer first, filling whole stacks where the fluid allows and at most one item partially. The
+        // planned volume is summed exactly as getTransferredVolume sums it, so that the items never get more than the slot
+        // gives up.
+        List<ItemTransfer> transfers = new ArrayList<>();
+        float planned = 0;
+        int slotCount = InventoryUtils.getSlotCount(itemInventory);
+        for (int i = 0; i < slotCount && planned < fluid.volume; i++) {
+            EntityRef item = InventoryUtils.getItemAt(itemInventory, i);
+            FluidContainerItemComponent fluidContainer = item.getComponent(FluidContainerItemComponent.class);
+            if (fluidContainer == null || fluidContainer.volume >= fluidContainer.maxVolume
+                    || (fluidContainer.fluidType != null && !fluidContainer.fluidType.equals(fluidType))) {
+                continue;
+            }
+            float space = fluidContainer.maxVolume - fluidContainer.volume;
+            int stackCount = InventoryUtils.getStackCount(item);
+            int fullCount = (int) Math.min(stackCount, Math.floor((fluid.volume - planned) / space));
+            if (fullCount > 0 && planned + fullCount * space > fluid.volume) {
+                fullCount--;
+            }
+            if (fullCount > 0) {
+                transfers.add(new ItemTransfer(item, fullCount, fluidContainer.volume, fluidContainer.maxVolume));
+                planned += fullCount * space;
+            }
+            if (fullCount < stackCount && planned < fluid.volume) {
+                // The last item takes what is left of the slot, except what is below its volume quantum.
+                float newVolume = fluidContainer.quantizeVolume(fluidContainer.volume + (fluid.volume - planned), false);
+                while (newVolume > fluidContainer.volume && planned + (newVolume - fluidContainer.volume) > fluid.volume) {
+                    newVolume = Math.nextDown(newVolume);
+                }
+                if (newVolume > fluidContainer.volume) {
+                    transfers.add(new ItemTransfer(item, 1, fluidContainer.volume, newVolume));
+                }
+                break;
+            }
+        }
+
+        List<EntityRef> removedItems = removeTransferredItems(instigator, itemInventory, transfers);
+        float volume = getTransferredVolume(transfers, removedItems);
+        if (volume <= 0 || !removeFluidFromSlot(instigator, container, slot, fluidType, volume)) {
+            returnTransferredItems(instigator, itemInventory, transfers, removedItems, null, false);
+            return 0;
+        }
+        int itemCount = returnTransferredItems(instigator, itemInventory, transfers, removedItems, fluidType, true);
+        container.send(new FluidContainerItemsTransferred(instigator, itemInventory, fluidType, slot, true, itemCount, volume));
+        return volume;
+    }
+
+    /**
+     * Empty every fluid container item of an item inventory holding the fluid of a fluid inventory slot into that slot,
+     * in one pass.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory holding the fluid container items
+     * @param container     The entity that houses the fluid inventory
+     * @param slot          The slot number of the fluid inventory that's intended to be filled
+     * @return              The volume of fluid transferred out of the items
+     */
+    @Override
+    public float emptyContainerItems(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        settlePassiveRates(container);
+        FluidComponent fluid = getFluidInSlot(container, slot);
+        float emptied = emptyContainerItemsIntoSlot(instigator, itemInventory, container, slot, fluid);
+        fluidProfiler.endOperation(profile, "emptyContainerItems", itemInventory, -1, container, slot,
+                fluid != null ? fluid.fluidType : null, 0, emptied, emptied > 0, vetoedDuringOperation);
+        return emptied;
+    }
+
+    /**
+     * See {@link #emptyContainerItems(EntityRef, EntityRef, EntityRef, int)}.
+     */
+    private float emptyContainerItemsIntoSlot(EntityRef instigator, EntityRef itemInventory, EntityRef container, int slot,
+                                              FluidComponent fluid) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            return 0;
+        }
+        String fluidType = fluid != null ? fluid.fluidType : null;
+
+        // Plan the whole transfer first, emptying whole stacks where the slot has room and at most one item partially.
+        List<ItemTransfer> transfers = new ArrayList<>();
+        float remaining = fluidInventory.maximumVolumes.get(slot) - (fluid != null ? fluid.volume : 0);
+        int slotCount = InventoryUtils.getSlotCount(itemInventory);
+        for (int i = 0; i < slotCount && remaining > 0; i++) {
+            EntityRef item = InventoryUtils.getItemAt(itemInventory, i);
+            FluidContainerItemComponent fluidContainer = item.getComponent(FluidContainerItemComponent.class);
+            if (fluidContainer == null || fluidContainer.fluidType == null || fluidContainer.volume <= 0
+                    || (fluidType != null && !fluidType.equals(fluidContainer.fluidType))) {
+                continue;
+            }
+            fluidType = fluidContainer.fluidType;
+            int stackCount = InventoryUtils.getStackCount(item);
+            int fullCount = (int) Math.min(stackCount, Math.floor(remaining / fluidContainer.volume));
+            if (fullCount > 0) {
+                transfers.add(new ItemTransfer(item, fullCount, fluidContainer.volume, 0));
+                remaining -= fullCount * fluidContainer.volume;
+            }
+            if (fullCount < stackCount && remaining > 0) {
+                // What is below the volume quantum of the item stays in the item.
+                float newVolume = fluidContainer.quantizeVolume(fluidContainer.volume - remaining, true);
+                if (newVolume < fluidContainer.volume) {
+                    transfers.add(new ItemTransfer(item, 1, fluidContainer.volume, newVolume));
+                }
+                remaining = 0;
+            }
+        }
+
+        List<EntityRef> removedItems = removeTransferredItems(instigator, itemInventory, transfers);
+        float volume = -getTransferredVolume(transfers, removedItems);
+        if (volume <= 0 || !addFluidToSlot(instigator, container, slot, fluidType, volume)) {
+            returnTransferredItems(instigator, itemInventory, transfers, removedItems, null, false);
+            return 0;
+        }
+        int itemCount = returnTransferredItems(instigator, itemInventory, transfers, removedItems, fluidType, true);
+        container.send(new FluidContainerItemsTransferred(instigator, itemInventory, fluidType, slot, false, itemCount, volume));
+        return volume;
+    }
+
+    /**
+     * Distribute a fluid from a set of source slots to a set of sink slots in a single pass.
+     *
+     * @param instigator   The entity that's instigating this action
+     * @param fluidType    The type of fluid being distributed
+     * @param distribution The sources and sinks; the volume each of them gave or took is stored back into it
+     * @return             The total volume of fluid that was moved
+     */
+    @Override
+    public float distributeFluid(EntityRef instigator, String fluidType, FluidDistribution distribution) {
+        Object profile = fluidProfiler.beginOperation();
+        vetoedDuringOperation = false;
+        float moved = distributeFluidBetweenSlots(instigator, fluidType, distribution);
+        fluidProfiler.endOperation(profile, "distributeFluid", EntityRef.NULL, -1, EntityRef.NULL, -1, fluidType, 0, moved,
+                moved > 0, vetoedDuringOperation);
+        return moved;
+    }
+
+    /**
+     * See {@link #distributeFluid(EntityRef, String, FluidDistribution)}.
+     */
+    private float distributeFluidBetweenSlots(EntityRef instigator, String fluidType, FluidDistribution distribution) {
+        if (fluidType == null) {
+            return 0;
+        }
+
+        // Read every fluid inventory and slot once, working out how much each participant can give or take.
+        Map<EntityRef, DistributionContainer> containers = new HashMap<>();
+        float supply = 0;
+        for (FluidDistribution.Participant source : distribution.sources) {
+            if (readParticipant(containers, source) && source.fluid != null && fluidType.equals(source.fluid.fluidType)) {
+                source.limit = Math.max(0, Math.min(source.fluid.volume, source.maxVolume));
+                if (source.limit > 0 && isRemoveVetoed(instigator, source.container, fluidType, source.limit, source.slot)) {
+                    source.limit = 0;
+                }
+                supply += source.limit;
+            }
+        }
+        if (supply <= 0) {
+            return 0;
+        }
+
+        List<FluidDistribution.Participant> sinks = new ArrayList<>(distribution.sinks.size());
+        for (FluidDistribution.Participant sink : distribution.sinks) {
+            if (readParticipant(containers, sink) && (sink.fluid == null || fluidType.equals(sink.fluid.fluidType))) {
+                float room = containers.get(sink.container).inventory.maximumVolumes.get(sink.slot) - sink.volumeBefore;
+                sink.limit = Math.max(0, Math.min(room, sink.maxVolume));
+                if (sink.limit > 0 && (sink.fluid != null || !isPutVetoed(instigator, sink.container, fluidType, sink.limit, sink.slot))) {
+                    sinks.add(sink);
+                } else {
+                    sink.limit = 0;
+                }
+            }
+        }
+
+        // Serve the sinks one priority tier at a time, highest first.
+        sinks.sort((first, second) -> Integer.compare(second.priority, first.priority));
+        float remaining = supply;
+        int tierStart = 0;
+        while (tierStart < sinks.size() && remaining > 0) {
+            int tierEnd = tierStart;
+            float tierDemand = 0;
+            while (tierEnd < sinks.size() && sinks.get(tierEnd).priority == sinks.get(tierStart).priority) {
+                tierDemand += sinks.get(tierEnd).limit;
+                tierEnd++;
+            }
+            List<FluidDistribution.Participant> tier = sinks.subList(tierStart, tierEnd);
+            if (tierDemand <= remaining) {
+                for (FluidDistribution.Participant sink : tier) {
+                    sink.allocated = sink.limit;
+                }
+                remaining -= tierDemand;
+            } else {
+                // Whatever the tier can't take, e.g. because all its weights are zero, goes on to the next one.
+                remaining -= shareByWeight(tier, remaining);
+            }
+            tierStart = tierEnd;
+        }
+
+        float total = 0;
+        for (FluidDistribution.Participant sink : sinks) {
+            total += sink.allocated;
+        }
+        if (total <= 0) {
+            return 0;
+        }
+
+        // Drain the sources in proportion to what they can give, handing any rounding error to the last one.
+        float fraction = total / supply;
+        float drawn = 0;
+        FluidDistribution.Participant lastSource = null;
+        for (FluidDistribution.Participant source : distribution.sources) {
+            if (source.limit > 0) {
+                source.allocated = Math.min(source.limit, source.limit * fraction);
+                drawn += source.allocated;
+                lastSource = source;
+            }
+        }
+        lastSource.allocated = Math.max(0, Math.min(lastSource.limit, lastSource.allocated + total - drawn));
+
+        // Apply the whole distribution, saving each fluid inventory once before telling anyone about the changes.
+        for (FluidDistribution.Participant source : distribution.sources) {
+            if (source.allocated > 0) {
+                applyToSource(containers.get(source.container), source);
+            }
+        }
+        for (FluidDistribution.Participant sink : sinks) {
+            if (sink.allocated > 0) {
+                applyToSink(containers.get(sink.container), sink, fluidType);
+            }
+        }
+        for (Map.Entry<EntityRef, DistributionContainer> container : containers.entrySet()) {
+            if (container.getValue().changed) {
+                container.getKey().saveComponent(container.getValue().inventory);
+            }
+        }
+        for (FluidDistribution.Participant source : distribution.sources) {
+            if (source.allocated > 0) {
+                float volumeAfter = source.fluidEntity.exists() ? source.fluid.volume : 0;
+                sendVolumeChanged(source.container, instigator, fluidType, source.slot, source.volumeBefore, volumeAfter);
+                audit(FluidAuditLog.REMOVE, instigator, source.container, source.slot, EntityRef.NULL, -1, fluidType,
+                        source.maxVolume, source.allocated, false);
+            }
+        }
+        for (FluidDistribution.Participant sink : sinks) {
+            if (sink.allocated > 0) {
+                float volumeAfter = sink.fluid != null ? sink.fluid.volume : sink.allocated;
+                sendVolumeChanged(sink.container, instigator, fluidType, sink.slot, sink.volumeBefore, volumeAfter);
+                audit(FluidAuditLog.ADD, instigator, EntityRef.NULL, -1, sink.container, sink.slot, fluidType,
+                        sink.maxVolume, sink.allocated, false);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Read the fluid inventory slot of a distribution participant, reading each fluid inventory only once.
+     *
+     * @param containers  The fluid inventories read so far, by entity
+     * @param participant The participant to read
+     * @return            Whether the participant's slot exists and doesn't already take part in the distribution
+     */
+    private boolean readParticipant(Map<EntityRef, DistributionContainer> containers, FluidDistribution.Participant participant) {
+        participant.limit = 0;
+        participant.allocated = 0;
+        participant.fluidEntity = EntityRef.NULL;
+        participant.fluid = null;
+        participant.volumeBefore = 0;
+
+        DistributionContainer container = containers.get(participant.container);
+        if (container == null) {
+            settlePassiveRates(participant.container);
+            FluidInventoryComponent fluidInventory = participant.container.getComponent(FluidInventoryComponent.class);
+            if (fluidInventory == null) {
+                return false;
+            }
+            container = new DistributionContainer(fluidInventory);
+            containers.put(participant.container, container);
+        }
+        if (participant.slot < 0 || participant.slot >= container.inventory.fluidSlots.size()
+                || container.claimedSlots.get(participant.slot)) {
+            return false;
+        }
+        container.claimedSlots.set(participant.slot);
+
+        participant.fluidEntity = container.inventory.fluidSlots.get(participant.slot);
+        participant.fluid = participant.fluidEntity.getComponent(FluidComponent.class);
+        if (participant.fluid != null) {
+            participant.volumeBefore = participant.fluid.volume;
+        }
+        return true;
+    }
+
+    /**
+     * Share a volume of fluid between sinks of the same priority in proportion to their weights, without giving any
+     * of them more than it can take. Sinks that fill up leave their share to the others. Sinks with no weight get
+     * nothing, unless no sink of the tier has any weight, in which case they all get equal shares.
+     *
+     * @param tier   The sinks of the tier, which together can take more than the volume
+     * @param volume The volume of fluid to share
+     * @return       The volume of fluid allocated to the sinks
+     */
+    private static float shareByWeight(List<FluidDistribution.Participant> tier, float volume) {
+        boolean unweighted = true;
+        for (FluidDistribution.Participant sink : tier) {
+            if (sink.weight > 0) {
+                unweighted = false;
+                break;
+            }
+        }
+
+        // Going from the sinks that fill up first, at the lowest level of fluid per unit of weight, every sink either
+        // fills up or gets its share of what's left at the current level.
+        List<FluidDistribution.Participant> weighted = new ArrayList<>(tier.size());
+        float totalWeight = 0;
+        for (FluidDistribution.Participant sink : tier) {
+            if (unweighted || sink.weight > 0) {
+                weighted.add(sink);
+                totalWeight += getShareWeight(sink, unweighted);
+            }
+        }
+        weighted.sort((first, second) -> Float.compare(first.limit / getShareWeight(first, unweighted),
+                second.limit / getShareWeight(second, unweighted)));
+
+        float remaining = volume;
+        for (FluidDistribution.Participant sink : weighted) {
+            float weight = getShareWeight(sink, unweighted);
+            float share = remaining * weight / totalWeight;
+            sink.allocated = Math.min(sink.limit, Math.min(remaining, share));
+            remaining -= sink.allocated;
+            totalWeight -= weight;
+        }
+        return volume - remaining;
+    }
+
+    private static float getShareWeight(FluidDistribution.Participant sink, boolean unweighted) {
+        return unweighted ? 1 : sink.weight;
+    }
+
+    /**
+     * Take the volume allocated to a distribution source out of its slot, without saving the fluid inventory.
+     *
+     * @param container The fluid inventory of the source
+     * @param source    The source
+     */
+    private static void applyToSource(DistributionContainer container, FluidDistribution.Participant source) {
+        if (source.fluid.volume - source.allocated <= FluidUtils.VOLUME_EPSILON) {
+            source.fluidEntity.destroy();
+            container.inventory.fluidSlots.set(source.slot, EntityRef.NULL);
+            container.changed = true;
+        } else {
+            source.fluid.volume -= source.allocated;
+            source.fluidEntity.saveComponent(source.fluid);
+        }
+    }
+
+    /**
+     * Put the volume allocated to a distribution sink into its slot, without saving the fluid inventory.
+     *
+     * @param container The fluid inventory of the sink
+     * @param sink      The sink
+     * @param fluidType The type of fluid being distributed
+     */
+    private static void applyToSink(DistributionContainer container, FluidDistribution.Participant sink, String fluidType) {
+        if (sink.fluid == null) {
+            EntityManager entityManager = CoreRegistry.get(EntityManager.class);
+
+            FluidComponent fluidComponent = new FluidComponent();
+            fluidComponent.fluidType = fluidType;
+            fluidComponent.volume = sink.allocated;
+
+            EntityRef newFluidEntity = entityManager.create(fluidComponent);
+            newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
+            container.inventory.fluidSlots.set(sink.slot, newFluidEntity);
+            container.changed = true;
+        } else {
+            sink.fluid.volume += sink.allocated;
+            sink.fluidEntity.saveComponent(sink.fluid);
+        }
+    }
+
+    /**
+     * Get the fluid component of the fluid in a particular fluid inventory slot.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param slot      The slot number of the fluid inventory
+     * @return          The fluid component, or null if the slot or the fluid inventory is empty
+     */
+    private static FluidComponent getFluidInSlot(EntityRef container, int slot) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            return null;
+        }
+        return fluidInventory.fluidSlots.get(slot).getComponent(FluidComponent.class);
+    }
+
+    /**
+     * Take the items of a planned bulk transfer out of their inventory, one removal per stack.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory
+     * @param transfers     The planned transfers
+     * @return              The removed items, in the order of the transfers, with null where the removal was refused
+     */
+    private List<EntityRef> removeTransferredItems(EntityRef instigator, EntityRef itemInventory, List<ItemTransfer> transfers) {
+        List<EntityRef> removedItems = new ArrayList<>(transfers.size());
+        for (ItemTransfer transfer : transfers) {
+            removedItems.add(inventoryManager.removeItem(itemInventory, instigator, transfer.item, false, transfer.count));
+        }
+        return removedItems;
+    }
+
+    /**
+     * Sum the change in item volume of the transfers whose items could be removed.
+     *
+     * @param transfers    The planned transfers
+     * @param removedItems The removed items, in the order of the transfers
+     * @return             The total change of volume in the items, positive when they are being filled
+     */
+    private static float getTransferredVolume(List<ItemTransfer> transfers, List<EntityRef> removedItems) {
+        float volume = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            if (removedItems.get(i) != null) {
+                ItemTransfer transfer = transfers.get(i);
+                volume += transfer.count * (transfer.newVolume - transfer.oldVolume);
+            }
+        }
+        return volume;
+    }
+
+    /**
+     * Put the items of a bulk transfer back into their inventory, where they merge with matching stacks.
+     *
+     * @param instigator    The entity that's instigating this action
+     * @param itemInventory The entity that houses the item inventory
+     * @param transfers     The planned transfers
+     * @param removedItems  The removed items, in the order of the transfers
+     * @param fluidType     The type of fluid the items hold after the transfer, if they are being changed
+     * @param apply         Whether to set the new volumes before putting the items back
+     * @return              The number of items put back
+     */
+    private int returnTransferredItems(EntityRef instigator, EntityRef itemInventory, List<ItemTransfer> transfers,
+                                       List<EntityRef> removedItems, String fluidType, boolean apply) {
+        int itemCount = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            EntityRef removedItem = removedItems.get(i);
+            if (removedItem == null) {
+                continue;
+            }
+            ItemTransfer transfer = transfers.get(i);
+            if (apply) {
+                FluidUtils.setFluidForContainerItem(removedItem, transfer.newVolume > 0 ? fluidType : null, transfer.newVolume);
+            }
+            if (!inventoryManager.giveItem(itemInventory, instigator, removedItem)) {
+                removedItem.destroy();
+            }
+            itemCount += transfer.count;
+        }
+        return itemCount;
+    }
+
+    /**
+     * Gets the throughput bucket of a port, creating a full one if the port hasn't been used since it was defined.
+     *
+     * @param buckets The buckets of all the input or all the output ports
+     * @param entity  The entity the port belongs to
+     * @param side    The name of the port
+     * @param rate    The maximum throughput of the port in litres per tick, or null if it's unlimited
+     * @return        The bucket of the port, or null if its throughput is unlimited
+     */
+    private TokenBucket getBucket(Map<EntityRef, Map<String, TokenBucket>> buckets, EntityRef entity, String side, Float rate) {
+        if (rate == null) {
+            return null;
+        }
+        return buckets.computeIfAbsent(entity, key -> new HashMap<>()).computeIfAbsent(side, key -> new TokenBucket(rate, tick));
+    }
+
+    /**
+     * Finds the port a plain transfer into or out of a slot goes through. Slots that aren't exposed through any port, or
+     * that are exposed through a port without a throughput limit, aren't limited. Otherwise the transfer goes through the
+     * limited port with the most throughput left.
+     *
+     * @param buckets The buckets of all the input or all the output ports
+     * @param entity  The entity that houses the fluid inventory
+     * @param slot    The slot number of the fluid inventory
+     * @param output  Whether to look at the output ports rather than the input ports
+     * @return        The bucket of the port, or null if the transfer isn't limited
+     */
+    private TokenBucket findPortBucket(Map<EntityRef, Map<String, TokenBucket>> buckets, EntityRef entity, int slot, boolean output) {
+        FluidInventoryAccessComponent access = entity.getComponent(FluidInventoryAccessComponent.class);
+        if (access == null) {
+            return null;
+        }
+        Map<String, Float> rates = output ? access.outputRate : access.inputRate;
+        if (rates.isEmpty()) {
+            return null;
+        }
+        FluidAccessMask accessMask = access.getAccessMask();
+        TokenBucket bestBucket = null;
+        for (String side : (output ? access.output : access.input).keySet()) {
+            if (output ? !accessMask.canOutput(side, slot) : !accessMask.canInput(side, slot)) {
+                continue;
+            }
+            Float rate = rates.get(side);
+            if (rate == null) {
+                return null;
+            }
+            TokenBucket bucket = getBucket(buckets, entity, side, rate);
+            if (bestBucket == null || bucket.getAvailable(tick) > bestBucket.getAvailable(tick)) {
+                bestBucket = bucket;
+            }
+        }
+        return bestBucket;
+    }
+
+    /**
+     * Mix a volume of fluid into a slot holding a different fluid, turning the contents of the slot into the result of
+     * the reaction.
+     *
+     * @param instigator     The instigator of this action
+     * @param container      The container in which the fluids are being mixed
+     * @param slot           The slot number of the fluid inventory in which the fluids are being mixed
+     * @param volume         The volume of fluid being added to the slot
+     * @param reaction       The reaction between the added fluid and the fluid in the slot
+     * @param fluidInventory The fluid inventory containing the slot
+     * @param fluidEntity    An entity reference to the fluid already in the slot
+     * @param fluid          The fluid component of the fluid already in the slot
+     */
+    private void mixFluid(EntityRef instigator, EntityRef container, int slot, float volume, FluidReaction reaction,
+                          FluidInventoryComponent fluidInventory, EntityRef fluidEntity, FluidComponent fluid) {
+        float maximumVolume = fluidInventory.maximumVolumes.get(slot);
+        String presentFluid = fluid.fluidType;
+        float volumeBefore = fluid.volume;
+        float resultVolume = Math.min(maximumVolume, (fluid.volume + volume) * reaction.getYield());
+
+        if (resultVolume > 0) {
+            fluid.fluidType = reaction.getResultFluid();
+            fluid.volume = resultVolume;
+            fluidEntity.saveComponent(fluid);
+        } else {
+            // Reactions with no fluid result (for example ones producing a solid) just empty the slot.
+            fluidEntity.destroy();
+            fluidInventory.fluidSlots.set(slot, EntityRef.NULL);
+            resultVolume = 0;
+        }
+        container.saveComponent(fluidInventory);
+
+        // The slot is reported as emptied of the present fluid and then filled with the result, but its levels only
+        // see the change from the old volume to the new one.
+        markPassiveRatesCurrent(container, slot);
+        container.send(new FluidVolumeChangedInInventory(instigator, presentFluid, slot, volumeBefore, 0));
+        if (resultVolume > 0) {
+            container.send(new FluidVolumeChangedInInventory(instigator, reaction.getResultFluid(), slot, 0, resultVolume));
+        }
+        FluidLevelTriggers.check(container, instigator, resultVolume > 0 ? reaction.getResultFluid() : presentFluid, slot,
+                volumeBefore, resultVolume);
+        container.send(new FluidsMixedInInventory(instigator, reaction.getAddedFluid(), presentFluid, reaction.getResultFluid(),
+                slot, resultVolume));
+    }
+
+    /**
+     * Tracks the throughput left on a single port. It holds at most one tick's worth of fluid, so unused throughput
+     * doesn't pile up into bursts, and is refilled lazily when the port is next used.
+     */
+    private static final class TokenBucket {
+        private final float rate;
+        private float available;
+        private long lastTick;
+
+        private TokenBucket(float rate, long tick) {
+            this.rate = rate;
+            this.available = rate;
+            this.lastTick = tick;
+        }
+
+        private float getAvailable(long currentTick) {
+            if (currentTick != lastTick) {
+                available = Math.min(rate, available + (currentTick - lastTick) * rate);
+                lastTick = currentTick;
+            }
+            return available;
+        }
+
+        private void consume(float volume) {
+            available = Math.max(0, available - volume);
+        }
+    }
+
+    /**
+     * A fluid inventory taking part in a distribution, read once and saved once.
+     */
+    private static final class DistributionContainer {
+        private final FluidInventoryComponent inventory;
+        private final BitSet claimedSlots = new BitSet();
+        private boolean changed;
+
+        private DistributionContainer(FluidInventoryComponent inventory) {
+            this.inventory = inventory;
+        }
+    }
+
+    /**
+     * A planned change of volume of a number of items of a stack of fluid container items.
+     */
+    private static final class ItemTransfer {
+        private final EntityRef item;
+        private final int count;
+        private final float oldVolume;
+        private final float newVolume;
+
+        private ItemTransfer(EntityRef item, int count, float oldVolume, float newVolume) {
+            this.item = item;
+            this.count = count;
+            this.oldVolume = oldVolume;
+            this.newVolume = newVolume;
+        }
+    }
 }
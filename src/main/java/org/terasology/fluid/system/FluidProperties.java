@@ -0,0 +1,66 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.fluid.component.FluidPropertiesComponent;
+
+/**
+ * An immutable profile of the physical properties of a fluid type, built once from its prefab.
+ */
+public final class FluidProperties {
+    /** The properties used for fluids whose prefab doesn't define any, matching those of water */
+    public static final FluidProperties DEFAULT = new FluidProperties(new FluidPropertiesComponent());
+
+    private final float density;
+    private final float viscosity;
+    private final float flowRate;
+    private final float temperature;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param component The component to read the properties from
+     */
+    public FluidProperties(FluidPropertiesComponent component) {
+        this.density = component.density;
+        this.viscosity = component.viscosity;
+        this.flowRate = component.flowRate;
+        this.temperature = component.temperature;
+    }
+
+    /**
+     * Accessor function that returns the density of the fluid.
+     *
+     * @return The density, in kilograms per litre
+     */
+    public float getDensity() {
+        return density;
+    }
+
+    /**
+     * Accessor function that returns the viscosity of the fluid.
+     *
+     * @return The viscosity, relative to water
+     */
+    public float getViscosity() {
+        return viscosity;
+    }
+
+    /**
+     * Accessor function that returns the flow rate of the fluid.
+     *
+     * @return The flow rate, relative to water
+     */
+    public float getFlowRate() {
+        return flowRate;
+    }
+
+    /**
+     * Accessor function that returns the temperature of the fluid.
+     *
+     * @return The temperature, in degrees Celsius
+     */
+    public float getTemperature() {
+        return temperature;
+    }
+}
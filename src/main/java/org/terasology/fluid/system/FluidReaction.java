@@ -0,0 +1,64 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+/**
+ * A compiled mixing rule between two fluid types.
+ */
+public final class FluidReaction {
+    private final String addedFluid;
+    private final String presentFluid;
+    private final String resultFluid;
+    private final float yield;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param addedFluid   The type of the fluid being moved into the slot
+     * @param presentFluid The type of the fluid already in the slot
+     * @param resultFluid  The type of the fluid the mixture turns into
+     * @param yield        The volume of the resulting fluid produced per unit of volume of the mixture
+     */
+    public FluidReaction(String addedFluid, String presentFluid, String resultFluid, float yield) {
+        this.addedFluid = addedFluid;
+        this.presentFluid = presentFluid;
+        this.resultFluid = resultFluid;
+        this.yield = yield;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid being moved into the slot.
+     *
+     * @return The type of the added fluid
+     */
+    public String getAddedFluid() {
+        return addedFluid;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid already in the slot.
+     *
+     * @return The type of the present fluid
+     */
+    public String getPresentFluid() {
+        return presentFluid;
+    }
+
+    /**
+     * Accessor function that returns the type of the fluid the mixture turns into.
+     *
+     * @return The type of the resulting fluid
+     */
+    public String getResultFluid() {
+        return resultFluid;
+    }
+
+    /**
+     * Accessor function that returns the volume of the resulting fluid produced per unit of volume of the mixture.
+     *
+     * @return The yield of the reaction
+     */
+    public float getYield() {
+        return yield;
+    }
+}
@@ -0,0 +1,36 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+/**
+ * A registry of the mixing rules between fluid types.
+ */
+public interface FluidReactionRegistry {
+    /**
+     * Finds the reaction which happens when a fluid is moved into a slot holding another fluid.
+     *
+     * @param addedFluid   The type of the fluid being moved into the slot
+     * @param presentFluid The type of the fluid already in the slot
+     * @return The reaction, or null if the two fluids don't mix
+     */
+    FluidReaction getReaction(String addedFluid, String presentFluid);
+
+    /**
+     * Finds the reaction which happens when a fluid is moved into a slot holding another fluid, without any name lookup.
+     * Intended for hot paths which already work with fluid ids.
+     *
+     * @param addedId   The id of the type of the fluid being moved into the slot, as returned by
+     *                  {@link FluidRegistry#getFluidId(String)}
+     * @param presentId The id of the type of the fluid already in the slot
+     * @return The reaction, or null if the two fluids don't mix
+     */
+    FluidReaction getReaction(int addedId, int presentId);
+
+    /**
+     * Registers a reaction in addition to the ones defined in prefabs. A reaction between fluid types that are not
+     * registered in the {@link FluidRegistry} has no effect until both of them are.
+     *
+     * @param reaction The reaction to register
+     */
+    void registerReaction(FluidReaction reaction);
+}
@@ -0,0 +1,126 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.prefab.PrefabManager;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidReactionComponent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the fluid mixing rules from prefabs with a {@link FluidReactionComponent} and compiles them into a dense table
+ * indexed by the ids of the two fluid types, so that looking up a reaction costs a single array access. The table is
+ * compiled again whenever more fluid types have been registered since.
+ */
+@RegisterSystem
+@Share(FluidReactionRegistry.class)
+public class FluidReactionRegistryImpl extends BaseComponentSystem implements FluidReactionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(FluidReactionRegistryImpl.class);
+
+    @In
+    private PrefabManager prefabManager;
+
+    @In
+    private FluidRegistry fluidRegistry;
+
+    private List<FluidReaction> reactions = new ArrayList<>();
+
+    /** Reactions indexed by {@code addedId * fluidCount + presentId} */
+    private FluidReaction[] reactionTable = new FluidReaction[0];
+    private int fluidCount;
+
+    /**
+     * The ids of the fluid types looked up so far, keyed by the exact string used, so that lookups by type don't have
+     * to go through the registry's case-insensitive names. Ids never change once assigned.
+     */
+    private Map<String, Integer> fluidIds = new HashMap<>();
+
+    /**
+     * Loads the reactions from prefabs once all the fluids have been registered.
+     */
+    @Override
+    public void postBegin() {
+        for (Prefab prefab : prefabManager.listPrefabs(FluidReactionComponent.class)) {
+            FluidReactionComponent component = prefab.getComponent(FluidReactionComponent.class);
+            if (component.addedFluid == null || component.presentFluid == null || component.resultFluid == null) {
+                logger.warn("Ignoring incomplete fluid reaction in prefab {}", prefab.getName());
+                continue;
+            }
+            reactions.add(new FluidReaction(component.addedFluid, component.presentFluid, component.resultFluid, component.yield));
+        }
+        compile();
+    }
+
+    @Override
+    public FluidReaction getReaction(String addedFluid, String presentFluid) {
+        if (addedFluid == null || presentFluid == null) {
+            return null;
+        }
+        return getReaction(getFluidId(addedFluid), getFluidId(presentFluid));
+    }
+
+    @Override
+    public FluidReaction getReaction(int addedId, int presentId) {
+        if (fluidRegistry.getFluidCount() != fluidCount) {
+            compile();
+        }
+        if (addedId < 0 || presentId < 0 || addedId >= fluidCount || presentId >= fluidCount) {
+            return null;
+        }
+        return reactionTable[addedId * fluidCount + presentId];
+    }
+
+    @Override
+    public void registerReaction(FluidReaction reaction) {
+        reactions.add(reaction);
+        compile();
+    }
+
+    /**
+     * Get the id of a fluid type, looking it up in the registry only the first time. Unregistered fluid types aren't
+     * remembered, as they may be registered later.
+     *
+     * @param fluidType The fluid type
+     * @return          The id of the fluid type, or -1 if it is not registered
+     */
+    private int getFluidId(String fluidType) {
+        Integer fluidId = fluidIds.get(fluidType);
+        if (fluidId == null) {
+            fluidId = fluidRegistry.getFluidId(fluidType);
+            if (fluidId < 0) {
+                return fluidId;
+            }
+            fluidIds.put(fluidType, fluidId);
+        }
+        return fluidId;
+    }
+
+    /**
+     * Rebuilds the reaction table from the list of known reactions. Reactions between fluid types that aren't
+     * registered yet are kept, and make it into the table once both are.
+     */
+    private void compile() {
+        fluidCount = fluidRegistry.getFluidCount();
+        reactionTable = new FluidReaction[fluidCount * fluidCount];
+        for (FluidReaction reaction : reactions) {
+            int addedId = fluidRegistry.getFluidId(reaction.getAddedFluid());
+            int presentId = fluidRegistry.getFluidId(reaction.getPresentFluid());
+            if (addedId < 0 || presentId < 0) {
+                logger.debug("Skipping fluid reaction between unregistered fluids {} and {}",
+                        reaction.getAddedFluid(), reaction.getPresentFluid());
+                continue;
+            }
+            reactionTable[addedId * fluidCount + presentId] = reaction;
+        }
+    }
+}
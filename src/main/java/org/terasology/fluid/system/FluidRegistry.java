@@ -32,12 +32,31 @@ public interface FluidRegistry {
     void registerFluid(String fluidType, String displayName, Color color);
 
     /**
-     * Accessor function which returns the list of fluid renderer associated with a given fluid type.
+     * Registers a fluid with a compact description of its appearance.
+     *
+     * @param fluidType   The type of fluid
+     * @param displayName The name used for the fluid in the UI
+     * @param appearance  The appearance to use when rendering the fluid
+     * @param block       The corresponding liquid block, or null if this fluid can't be placed in the world.
+     */
+    void registerFluid(String fluidType, String displayName, FluidAppearance appearance, Block block);
+
+    /**
+     * Accessor function which returns the list of fluid renderer associated with a given fluid type. The image is
+     * created on demand, so prefer {@link #getFluidAppearance(String)} where the pixels can be used directly.
      *
      * @param fluidType The fluid type
      */
     BufferedImage getFluidTexture(String fluidType);
 
+    /**
+     * Accessor function which returns the appearance associated with a given fluid type.
+     *
+     * @param fluidType The fluid type
+     * @return The appearance associated with the fluid type, or null if it is not registered
+     */
+    FluidAppearance getFluidAppearance(String fluidType);
+
     /**
      * Accessor function which returns name to use in the UI for a given fluid type.
      *
@@ -58,7 +77,7 @@ public interface FluidRegistry {
      * Accessor function which returns the fluid type associated with a given liquid block.
      *
      * @param liquid The type of liquid block
-     * @return The fluid type associated with the liquid block
+     * @return The fluid type associated with the liquid block, or null if the block isn't a registered liquid
      */
     String getCorrespondingFluid(Block liquid);
 
@@ -66,4 +85,54 @@ public interface FluidRegistry {
      * Finds the prefab which should be used for properties of the given fluid, whether or not it has an associated liquid.
      */
     Prefab getPrefab(String fluidType);
+
+    /**
+     * Accessor function which returns the numeric id of a registered fluid type. Ids are assigned in registration
+     * order, starting from 0, and are stable for the lifetime of the game.
+     *
+     * @param fluidType The fluid type
+     * @return The id of the fluid type, or -1 if it is not registered
+     */
+    int getFluidId(String fluidType);
+
+    /**
+     * Accessor function which returns the number of registered fluid types, which is one more than the largest id.
+     *
+     * @return The number of registered fluid types
+     */
+    int getFluidCount();
+
+    /**
+     * Accessor function which returns the fluid type registered under a given id.
+     *
+     * @param fluidId The id of the fluid type
+     * @return The fluid type, or null if no fluid type has this id
+     */
+    String getFluidType(int fluidId);
+
+    /**
+     * Accessor function which returns the physical properties of a given fluid type. The profile is built from the
+     * {@link org.terasology.fluid.component.FluidPropertiesComponent} of the fluid's prefab when the fluid is registered,
+     * and kept until {@link #invalidateFluidProperties()}.
+     *
+     * @param fluidType The fluid type
+     * @return The property profile of the fluid type, or {@link FluidProperties#DEFAULT} if its prefab defines none
+     */
+    FluidProperties getFluidProperties(String fluidType);
+
+    /**
+     * Accessor function which returns the physical properties of the fluid type with a given id, without any name
+     * lookup. Intended for hot paths which already work with fluid ids.
+     *
+     * @param fluidId The id of the fluid type, as returned by {@link #getFluidId(String)}
+     * @return The property profile of the fluid type, or {@link FluidProperties#DEFAULT} if its prefab defines none or
+     *         no fluid type has this id
+     */
+    FluidProperties getFluidProperties(int fluidId);
+
+    /**
+     * Rebuilds all the fluid property profiles from the prefabs. Should be called after prefabs have been reloaded; the
+     * {@code fluidReloadProperties} console command does so.
+     */
+    void invalidateFluidProperties();
 }
@@ -6,15 +6,20 @@ import org.terasology.engine.entitySystem.prefab.Prefab;
 import org.terasology.engine.entitySystem.prefab.PrefabManager;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.permission.PermissionManager;
 import org.terasology.engine.registry.CoreRegistry;
 import org.terasology.engine.registry.Share;
 import org.terasology.engine.world.block.Block;
+import org.terasology.fluid.component.FluidPropertiesComponent;
 import org.terasology.gestalt.naming.Name;
 
 import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,10 +28,27 @@ import java.util.Map;
 @RegisterSystem
 @Share(FluidRegistry.class)
 public class FluidRegistryImpl extends BaseComponentSystem implements FluidRegistry {
-    private Map<Name, BufferedImage> fluidTextures = new HashMap<>();
+    private Map<Name, FluidAppearance> fluidAppearances = new HashMap<>();
     private Map<Name, String> displayNames = new HashMap<>();
     private Map<Name, Block> fluidLiquidMap = new HashMap<>();
     private Map<Block, Name> liquidFluidMap = new HashMap<>();
+    private Map<Name, Integer> fluidIds = new HashMap<>();
+    private List<String> fluidTypesById = new ArrayList<>();
+
+    /**
+     * Property profiles indexed by fluid id, built when a fluid is registered and rebuilt once every system has been
+     * initialised, as well as on {@link #invalidateFluidProperties()}
+     */
+    private FluidProperties[] fluidProperties = new FluidProperties[0];
+
+    /**
+     * Rebuilds the property profiles once every system has been initialised, in case a fluid was registered before its
+     * prefab was available.
+     */
+    @Override
+    public void postBegin() {
+        invalidateFluidProperties();
+    }
 
     /**
      * Registers a fluid with a fluid renderer.
@@ -38,13 +60,7 @@ public class FluidRegistryImpl extends BaseComponentSystem implements FluidRegis
      */
     @Override
     public void registerFluid(String fluidTypeString, String displayName, BufferedImage fluidTexture, Block block) {
-        Name fluidType = new Name(fluidTypeString);
-        fluidTextures.put(fluidType, fluidTexture);
-        displayNames.put(fluidType, displayName);
-        if (block != null) {
-            fluidLiquidMap.put(fluidType, block);
-            liquidFluidMap.put(block, fluidType);
-        }
+        registerFluid(fluidTypeString, displayName, FluidAppearance.ofImage(fluidTexture), block);
     }
 
     /**
@@ -56,22 +72,59 @@ public class FluidRegistryImpl extends BaseComponentSystem implements FluidRegis
      */
     @Override
     public void registerFluid(String fluidType, String displayName, Color color) {
-        BufferedImage texture = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D graphics = texture.createGraphics();
-        graphics.setColor(color);
-        graphics.fillRect(0, 0, 16, 16);
-        registerFluid(fluidType, displayName, texture, null);
+        registerFluid(fluidType, displayName, FluidAppearance.ofColor(color), null);
     }
 
     /**
-     * Accessor function which returns the fluid image associated with a given fluid type.
+     * Registers a fluid with a compact description of its appearance.
+     *
+     * @param fluidTypeString The type of fluid
+     * @param displayName     The name used for the fluid in the UI
+     * @param appearance      The appearance to use when rendering the fluid
+     * @param block           The corresponding liquid block, or null if this fluid can't be placed in the world.
+     */
+    @Override
+    public void registerFluid(String fluidTypeString, String displayName, FluidAppearance appearance, Block block) {
+        Name fluidType = new Name(fluidTypeString);
+        Integer fluidId = fluidIds.get(fluidType);
+        if (fluidId == null) {
+            fluidId = fluidTypesById.size();
+            fluidIds.put(fluidType, fluidId);
+            fluidTypesById.add(fluidTypeString);
+            fluidProperties = Arrays.copyOf(fluidProperties, fluidTypesById.size());
+        }
+        fluidAppearances.put(fluidType, appearance);
+        displayNames.put(fluidType, displayName);
+        if (block != null) {
+            fluidLiquidMap.put(fluidType, block);
+            liquidFluidMap.put(block, fluidType);
+        }
+        // The corresponding liquid, and so the prefab, may have changed.
+        fluidProperties[fluidId] = buildFluidProperties(getPrefab(fluidTypeString));
+    }
+
+    /**
+     * Accessor function which returns the fluid image associated with a given fluid type. The image is created from
+     * the stored appearance on each call.
      *
      * @param fluidType The fluid type
      * @return The fluid image associated with the fluid type
      */
     @Override
     public BufferedImage getFluidTexture(String fluidType) {
-        return fluidTextures.get(new Name(fluidType));
+        FluidAppearance appearance = getFluidAppearance(fluidType);
+        return appearance != null ? appearance.toImage() : null;
+    }
+
+    /**
+     * Accessor function which returns the appearance associated with a given fluid type.
+     *
+     * @param fluidType The fluid type
+     * @return The appearance associated with the fluid type, or null if it is not registered
+     */
+    @Override
+    public FluidAppearance getFluidAppearance(String fluidType) {
+        return fluidAppearances.get(new Name(fluidType));
     }
 
     /**
@@ -100,11 +153,12 @@ public class FluidRegistryImpl extends BaseComponentSystem implements FluidRegis
      * Accessor function which returns the fluid type associated with a given liquid block.
      *
      * @param liquid The type of liquid block
-     * @return The fluid type associated with the liquid block
+     * @return The fluid type associated with the liquid block, or null if the block isn't a registered liquid
      */
     @Override
     public String getCorrespondingFluid(Block liquid) {
-        return liquidFluidMap.get(liquid).toString();
+        Name fluidType = liquidFluidMap.get(liquid);
+        return fluidType != null ? fluidType.toString() : null;
     }
 
     /**
@@ -122,4 +176,100 @@ public class FluidRegistryImpl extends BaseComponentSystem implements FluidRegis
             return CoreRegistry.get(PrefabManager.class).getPrefab(fluidType);
         }
     }
+
+    /**
+     * Accessor function which returns the numeric id of a registered fluid type.
+     *
+     * @param fluidType The fluid type
+     * @return The id of the fluid type, or -1 if it is not registered
+     */
+    @Override
+    public int getFluidId(String fluidType) {
+        if (fluidType == null) {
+            return -1;
+        }
+        return fluidIds.getOrDefault(new Name(fluidType), -1);
+    }
+
+    /**
+     * Accessor function which returns the number of registered fluid types.
+     *
+     * @return The number of registered fluid types
+     */
+    @Override
+    public int getFluidCount() {
+        return fluidIds.size();
+    }
+
+    /**
+     * Accessor function which returns the fluid type registered under a given id.
+     *
+     * @param fluidId The id of the fluid type
+     * @return The fluid type, or null if no fluid type has this id
+     */
+    @Override
+    public String getFluidType(int fluidId) {
+        if (fluidId < 0 || fluidId >= fluidTypesById.size()) {
+            return null;
+        }
+        return fluidTypesById.get(fluidId);
+    }
+
+    /**
+     * Accessor function which returns the property profile of a given fluid type.
+     *
+     * @param fluidType The fluid type
+     * @return The property profile of the fluid type
+     */
+    @Override
+    public FluidProperties getFluidProperties(String fluidType) {
+        int fluidId = getFluidId(fluidType);
+        if (fluidId < 0) {
+            // Unregistered fluids have no stable id to cache the profile under.
+            return buildFluidProperties(getPrefab(fluidType));
+        }
+        return getFluidProperties(fluidId);
+    }
+
+    /**
+     * Accessor function which returns the property profile of a fluid type with a given id, straight from the table of
+     * profiles.
+     *
+     * @param fluidId The id of the fluid type
+     * @return The property profile of the fluid type, or {@link FluidProperties#DEFAULT} if no fluid type has this id
+     */
+    @Override
+    public FluidProperties getFluidProperties(int fluidId) {
+        if (fluidId < 0 || fluidId >= fluidProperties.length) {
+            return FluidProperties.DEFAULT;
+        }
+        return fluidProperties[fluidId];
+    }
+
+    /**
+     * Rebuilds all the property profiles from the prefabs.
+     */
+    @Override
+    public void invalidateFluidProperties() {
+        for (int fluidId = 0; fluidId < fluidProperties.length; fluidId++) {
+            fluidProperties[fluidId] = buildFluidProperties(getPrefab(fluidTypesById.get(fluidId)));
+        }
+    }
+
+    @Command(shortDescription = "Reloads the physical properties of the fluids",
+            helpText = "Rebuilds the physical properties of every registered fluid from its prefab. The engine doesn't "
+                    + "tell modules when it reloads prefabs, so run this after changing the properties of a fluid.",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String fluidReloadProperties() {
+        invalidateFluidProperties();
+        return "Reloaded the properties of " + fluidProperties.length + " fluids.";
+    }
+
+    private static FluidProperties buildFluidProperties(Prefab prefab) {
+        if (prefab == null) {
+            return FluidProperties.DEFAULT;
+        }
+        FluidPropertiesComponent component = prefab.getComponent(FluidPropertiesComponent.class);
+        return component != null ? new FluidProperties(component) : FluidProperties.DEFAULT;
+    }
 }
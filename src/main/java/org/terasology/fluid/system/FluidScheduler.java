@@ -0,0 +1,68 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Runs fluid operations after a delay, once or repeatedly, for things like drip feeders, timed valves and batch
+ * reactors. Delays and periods are counted in ticks, and the operations go through the {@link FluidManager} like any
+ * other, so they can be vetoed and may move less than asked.
+ * <p>
+ * Jobs are cancelled when a fluid inventory they work on is destroyed.
+ */
+public interface FluidScheduler {
+    /**
+     * Schedules fluid to be moved from one fluid inventory slot to another.
+     *
+     * @param instigator The entity that's instigating this action
+     * @param from       The entity that houses the source fluid inventory
+     * @param slotFrom   The slot number of the source fluid inventory
+     * @param to         The entity that houses the destination fluid inventory
+     * @param slotTo     The slot number of the destination fluid inventory
+     * @param fluidType  The type of fluid being transferred
+     * @param volume     The volume of fluid transferred each time the job runs
+     * @param delay      The number of ticks before the job first runs, at least 1
+     * @param period     The number of ticks between runs, or 0 to run once
+     * @return           The job
+     */
+    FluidJob scheduleMove(EntityRef instigator, EntityRef from, int slotFrom, EntityRef to, int slotTo, String fluidType,
+                          float volume, long delay, long period);
+
+    /**
+     * Schedules fluid to be added to a fluid inventory slot.
+     *
+     * @param instigator The entity that's instigating this action
+     * @param container  The entity that houses the fluid inventory
+     * @param slot       The slot number of the fluid inventory
+     * @param fluidType  The type of fluid being added
+     * @param volume     The volume of fluid added each time the job runs
+     * @param delay      The number of ticks before the job first runs, at least 1
+     * @param period     The number of ticks between runs, or 0 to run once
+     * @return           The job
+     */
+    FluidJob scheduleAdd(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume, long delay,
+                         long period);
+
+    /**
+     * Schedules fluid to be removed from a fluid inventory slot.
+     *
+     * @param instigator The entity that's instigating this action
+     * @param container  The entity that houses the fluid inventory
+     * @param slot       The slot number of the fluid inventory
+     * @param fluidType  The type of fluid being removed
+     * @param volume     The volume of fluid removed each time the job runs
+     * @param delay      The number of ticks before the job first runs, at least 1
+     * @param period     The number of ticks between runs, or 0 to run once
+     * @return           The job
+     */
+    FluidJob scheduleRemove(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume, long delay,
+                            long period);
+
+    /**
+     * Accessor function that returns the number of active jobs.
+     *
+     * @return The number of active jobs
+     */
+    int getJobCount();
+}
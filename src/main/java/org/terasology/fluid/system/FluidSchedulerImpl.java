@@ -0,0 +1,314 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs scheduled fluid operations off a hierarchical timing wheel. An implementation of the FluidScheduler interface.
+ * <p>
+ * The wheel has {@link #LEVELS} levels of {@link #WHEEL_SIZE} buckets. Level 0 holds the jobs due within the next
+ * {@link #WHEEL_SIZE} ticks, one bucket per tick, and each further level covers {@link #WHEEL_SIZE} times the span of
+ * the one below. Whenever the ticks of a level wrap around, the next bucket of the level above is emptied into the
+ * levels below. Scheduling and cancelling a job are constant time, and a tick only touches the jobs that are due or
+ * being moved down a level.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidScheduler.class)
+public class FluidSchedulerImpl extends BaseComponentSystem implements FluidScheduler, UpdateSubscriberSystem {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    /** The longest delay the wheel can hold; jobs due later are parked in the last bucket and placed again from there */
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    @In
+    private FluidManager fluidManager;
+
+    private final Job[][] buckets = new Job[LEVELS][WHEEL_SIZE];
+    /** The last tick whose jobs have been run */
+    private long tick;
+    private int jobCount;
+    private Map<EntityRef, List<Job>> jobsByContainer = new HashMap<>();
+    /** The jobs being run this tick */
+    private List<Job> dueJobs = new ArrayList<>();
+
+    @Override
+    public void shutdown() {
+        for (Job[] level : buckets) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                for (Job job = level[i]; job != null; job = job.next) {
+                    job.active = false;
+                }
+                level[i] = null;
+            }
+        }
+        jobsByContainer.clear();
+        jobCount = 0;
+    }
+
+    @Override
+    public FluidJob scheduleMove(EntityRef instigator, EntityRef from, int slotFrom, EntityRef to, int slotTo, String fluidType,
+                                 float volume, long delay, long period) {
+        return schedule(new Job(JobKind.MOVE, instigator, from, slotFrom, to, slotTo, fluidType, volume, period), delay);
+    }
+
+    @Override
+    public FluidJob scheduleAdd(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume, long delay,
+                                long period) {
+        return schedule(new Job(JobKind.ADD, instigator, EntityRef.NULL, -1, container, slot, fluidType, volume, period), delay);
+    }
+
+    @Override
+    public FluidJob scheduleRemove(EntityRef instigator, EntityRef container, int slot, String fluidType, float volume, long delay,
+                                   long period) {
+        return schedule(new Job(JobKind.REMOVE, instigator, container, slot, EntityRef.NULL, -1, fluidType, volume, period), delay);
+    }
+
+    @Override
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    private Job schedule(Job job, long delay) {
+        if (job.period < 0) {
+            throw new IllegalArgumentException("Period must not be negative: " + job.period);
+        }
+        job.dueTick = tick + Math.max(1, delay);
+        job.active = true;
+        jobCount++;
+        addToContainer(job.from, job);
+        addToContainer(job.to, job);
+        insert(job);
+        return job;
+    }
+
+    /**
+     * Cancels the jobs working on a fluid inventory that is being destroyed.
+     *
+     * @param event     Event that indicates the removal
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerRemoved(BeforeRemoveComponent event, EntityRef container) {
+        List<Job> jobs = jobsByContainer.remove(container);
+        if (jobs != null) {
+            for (Job job : jobs) {
+                job.cancel();
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick and runs the jobs that are due.
+     *
+     * @param delta The time elapsed since the last update
+     */
+    @Override
+    public void update(float delta) {
+        tick++;
+        if (jobCount == 0) {
+            return;
+        }
+
+        // Bring the jobs of the higher levels down as the ticks of the levels below wrap around.
+        for (int level = 1; level < LEVELS && (tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0; level++) {
+            int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            Job job = buckets[level][index];
+            buckets[level][index] = null;
+            while (job != null) {
+                Job next = job.next;
+                job.previous = null;
+                job.next = null;
+                insert(job);
+                job = next;
+            }
+        }
+
+        // Detach the whole bucket first, so that jobs scheduled or cancelled while running the due ones don't disturb
+        // the batch.
+        int index = (int) (tick & WHEEL_MASK);
+        Job job = buckets[0][index];
+        buckets[0][index] = null;
+        while (job != null) {
+            Job next = job.next;
+            job.previous = null;
+            job.next = null;
+            job.level = -1;
+            dueJobs.add(job);
+            job = next;
+        }
+        for (Job dueJob : dueJobs) {
+            if (dueJob.active) {
+                run(dueJob);
+            }
+        }
+        dueJobs.clear();
+    }
+
+    /**
+     * Runs a due job, and places it back into the wheel if it repeats.
+     *
+     * @param job The job
+     */
+    private void run(Job job) {
+        if ((job.from != EntityRef.NULL && !job.from.exists()) || (job.to != EntityRef.NULL && !job.to.exists())) {
+            job.cancel();
+            return;
+        }
+        switch (job.kind) {
+            case MOVE:
+                fluidManager.moveFluid(job.instigator, job.from, job.to, job.slotFrom, job.fluidType, job.slotTo, job.volume);
+                break;
+            case ADD:
+                fluidManager.addFluid(job.instigator, job.to, job.slotTo, job.fluidType, job.volume);
+                break;
+            default:
+                fluidManager.removeFluid(job.instigator, job.from, job.slotFrom, job.fluidType, job.volume);
+                break;
+        }
+        if (!job.active) {
+            // The operation itself cancelled the job.
+            return;
+        }
+        if (job.period > 0) {
+            job.dueTick = tick + job.period;
+            insert(job);
+        } else {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Places a job into the bucket matching how far away it is due.
+     *
+     * @param job The job, which must not be in any bucket
+     */
+    private void insert(Job job) {
+        long delay = Math.max(0, job.dueTick - tick);
+        long slotTick = delay > MAX_DELAY ? tick + MAX_DELAY : Math.max(tick, job.dueTick);
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        job.level = level;
+        job.index = index;
+        job.next = buckets[level][index];
+        if (job.next != null) {
+            job.next.previous = job;
+        }
+        buckets[level][index] = job;
+    }
+
+    /**
+     * Takes a job out of its bucket, if it is in one.
+     *
+     * @param job The job
+     */
+    private void unlink(Job job) {
+        if (job.level < 0) {
+            return;
+        }
+        if (job.previous != null) {
+            job.previous.next = job.next;
+        } else {
+            buckets[job.level][job.index] = job.next;
+        }
+        if (job.next != null) {
+            job.next.previous = job.previous;
+        }
+        job.previous = null;
+        job.next = null;
+        job.level = -1;
+    }
+
+    private void addToContainer(EntityRef container, Job job) {
+        if (container != EntityRef.NULL) {
+            jobsByContainer.computeIfAbsent(container, key -> new ArrayList<>(1)).add(job);
+        }
+    }
+
+    private void removeFromContainer(EntityRef container, Job job) {
+        List<Job> jobs = jobsByContainer.get(container);
+        if (jobs != null) {
+            jobs.remove(job);
+            if (jobs.isEmpty()) {
+                jobsByContainer.remove(container);
+            }
+        }
+    }
+
+    private enum JobKind {
+        MOVE,
+        ADD,
+        REMOVE
+    }
+
+    /**
+     * A scheduled operation, linked into the list of its bucket.
+     */
+    private final class Job implements FluidJob {
+        private final JobKind kind;
+        private final EntityRef instigator;
+        private final EntityRef from;
+        private final int slotFrom;
+        private final EntityRef to;
+        private final int slotTo;
+        private final String fluidType;
+        private final float volume;
+        private final long period;
+
+        private long dueTick;
+        private boolean active;
+        private int level = -1;
+        private int index;
+        private Job previous;
+        private Job next;
+
+        private Job(JobKind kind, EntityRef instigator, EntityRef from, int slotFrom, EntityRef to, int slotTo, String fluidType,
+                    float volume, long period) {
+            this.kind = kind;
+            this.instigator = instigator;
+            this.from = from;
+            this.slotFrom = slotFrom;
+            this.to = to;
+            this.slotTo = slotTo;
+            this.fluidType = fluidType;
+            this.volume = volume;
+            this.period = period;
+        }
+
+        @Override
+        public void cancel() {
+            if (!active) {
+                return;
+            }
+            active = false;
+            jobCount--;
+            unlink(this);
+            removeFromContainer(from, this);
+            removeFromContainer(to, this);
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+/**
+ * The net change of a fluid inventory slot over a tick, as delivered to a {@link FluidVolumeListener}. However many
+ * times the slot changed during the tick, it is described by its state before the first and after the last change.
+ */
+public final class FluidSlotChange {
+    private final int slot;
+    private final String fluidTypeBefore;
+    private final float volumeBefore;
+    private final String fluidTypeAfter;
+    private final float volumeAfter;
+    private final int changeCount;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param slot            The slot number
+     * @param fluidTypeBefore The type of fluid involved in the first change
+     * @param volumeBefore    The volume of fluid in the slot before the first change
+     * @param fluidTypeAfter  The type of fluid involved in the last change
+     * @param volumeAfter     The volume of fluid in the slot after the last change
+     * @param changeCount     The number of changes that were coalesced
+     */
+    public FluidSlotChange(int slot, String fluidTypeBefore, float volumeBefore, String fluidTypeAfter, float volumeAfter,
+                           int changeCount) {
+        this.slot = slot;
+        this.fluidTypeBefore = fluidTypeBefore;
+        this.volumeBefore = volumeBefore;
+        this.fluidTypeAfter = fluidTypeAfter;
+        this.volumeAfter = volumeAfter;
+        this.changeCount = changeCount;
+    }
+
+    /**
+     * Accessor function that returns the slot number.
+     *
+     * @return The slot number
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Accessor function that returns the type of fluid involved in the first change.
+     *
+     * @return The type of fluid
+     */
+    public String getFluidTypeBefore() {
+        return fluidTypeBefore;
+    }
+
+    /**
+     * Accessor function that returns the volume of fluid in the slot before the first change.
+     *
+     * @return The volume of fluid
+     */
+    public float getVolumeBefore() {
+        return volumeBefore;
+    }
+
+    /**
+     * Accessor function that returns the type of fluid involved in the last change.
+     *
+     * @return The type of fluid
+     */
+    public String getFluidTypeAfter() {
+        return fluidTypeAfter;
+    }
+
+    /**
+     * Accessor function that returns the volume of fluid in the slot after the last change.
+     *
+     * @return The volume of fluid
+     */
+    public float getVolumeAfter() {
+        return volumeAfter;
+    }
+
+    /**
+     * Accessor function that returns the number of changes the slot went through during the tick.
+     *
+     * @return The number of changes
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "FluidSlotChange{slot=" + slot + ", " + fluidTypeBefore + " " + volumeBefore + " -> " + fluidTypeAfter + " "
+                + volumeAfter + ", " + changeCount + " changes}";
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable record of the fluid state of a set of fluid inventories at one point in time. Snapshots share the
+ * {@link FluidContainerState} of every fluid inventory that didn't change in between, so taking one costs little more
+ * than the inventories that changed, and comparing two of them can skip the shared states.
+ */
+public final class FluidSnapshot {
+    private final long time;
+    private final Map<EntityRef, FluidContainerState> states;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param time   The game time at which the snapshot was taken, in milliseconds
+     * @param states The states of the fluid inventories, which must not be modified afterwards
+     */
+    FluidSnapshot(long time, Map<EntityRef, FluidContainerState> states) {
+        this.time = time;
+        this.states = Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * Accessor function that returns the game time at which the snapshot was taken.
+     *
+     * @return The game time of the snapshot, in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Accessor function that returns the fluid inventories recorded in the snapshot.
+     *
+     * @return The entities housing the recorded fluid inventories
+     */
+    public Set<EntityRef> getContainers() {
+        return states.keySet();
+    }
+
+    /**
+     * Accessor function that returns the recorded state of a fluid inventory.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @return          The recorded state, or null if the fluid inventory isn't part of the snapshot
+     */
+    public FluidContainerState getState(EntityRef container) {
+        return states.get(container);
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * A fluid inventory slot whose contents differ between two {@link FluidSnapshot}s. A slot missing from one of the
+ * snapshots, because its fluid inventory or the slot itself didn't exist, counts as empty.
+ */
+public final class FluidSnapshotDifference {
+    private final EntityRef container;
+    private final int slot;
+    private final String fluidTypeBefore;
+    private final float volumeBefore;
+    private final String fluidTypeAfter;
+    private final float volumeAfter;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param container       The entity that houses the fluid inventory
+     * @param slot            The slot number
+     * @param fluidTypeBefore The type of fluid in the slot in the first snapshot, or null
+     * @param volumeBefore    The volume of fluid in the slot in the first snapshot
+     * @param fluidTypeAfter  The type of fluid in the slot in the second snapshot, or null
+     * @param volumeAfter     The volume of fluid in the slot in the second snapshot
+     */
+    public FluidSnapshotDifference(EntityRef container, int slot, String fluidTypeBefore, float volumeBefore,
+                                   String fluidTypeAfter, float volumeAfter) {
+        this.container = container;
+        this.slot = slot;
+        this.fluidTypeBefore = fluidTypeBefore;
+        this.volumeBefore = volumeBefore;
+        this.fluidTypeAfter = fluidTypeAfter;
+        this.volumeAfter = volumeAfter;
+    }
+
+    /**
+     * Accessor function that returns the entity that houses the fluid inventory.
+     *
+     * @return The container
+     */
+    public EntityRef getContainer() {
+        return container;
+    }
+
+    /**
+     * Accessor function that returns the slot number.
+     *
+     * @return The slot number
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Accessor function that returns the type of fluid in the slot in the first snapshot.
+     *
+     * @return The type of fluid, or null if the slot was empty
+     */
+    public String getFluidTypeBefore() {
+        return fluidTypeBefore;
+    }
+
+    /**
+     * Accessor function that returns the volume of fluid in the slot in the first snapshot.
+     *
+     * @return The volume of fluid
+     */
+    public float getVolumeBefore() {
+        return volumeBefore;
+    }
+
+    /**
+     * Accessor function that returns the type of fluid in the slot in the second snapshot.
+     *
+     * @return The type of fluid, or null if the slot was empty
+     */
+    public String getFluidTypeAfter() {
+        return fluidTypeAfter;
+    }
+
+    /**
+     * Accessor function that returns the volume of fluid in the slot in the second snapshot.
+     *
+     * @return The volume of fluid
+     */
+    public float getVolumeAfter() {
+        return volumeAfter;
+    }
+
+    @Override
+    public String toString() {
+        return container.getId() + "[" + slot + "]: " + fluidTypeBefore + " " + volumeBefore + " -> " + fluidTypeAfter + " " + volumeAfter;
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Captures the fluid state of fluid inventories, to restore it later or to compare it with another point in time.
+ */
+public interface FluidSnapshotManager {
+    /**
+     * Records the fluid state of every active fluid inventory.
+     *
+     * @return The snapshot
+     */
+    FluidSnapshot capture();
+
+    /**
+     * Records the fluid state of a selection of fluid inventories. Entities without a fluid inventory are skipped.
+     *
+     * @param containers The entities that house the fluid inventories
+     * @return           The snapshot
+     */
+    FluidSnapshot capture(Collection<EntityRef> containers);
+
+    /**
+     * Puts the fluid inventories of a snapshot back into their recorded state, bypassing the veto events. Fluid
+     * inventories that no longer exist are skipped, and ones created since are left alone.
+     *
+     * @param instigator The entity that's instigating this action
+     * @param snapshot   The snapshot to restore
+     */
+    void restore(EntityRef instigator, FluidSnapshot snapshot);
+
+    /**
+     * Lists the fluid inventory slots whose contents differ between two snapshots.
+     *
+     * @param before The earlier snapshot
+     * @param after  The later snapshot
+     * @return       The differing slots
+     */
+    List<FluidSnapshotDifference> diff(FluidSnapshot before, FluidSnapshot after);
+}
@@ -0,0 +1,284 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the last captured state of every active fluid inventory, and only copies the state of the ones marked as
+ * changed since. Changes are noticed through fluid volume change events and changes of the fluid inventory component,
+ * so fluid components modified without either aren't picked up.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidSnapshotManager.class)
+public class FluidSnapshotManagerImpl extends BaseComponentSystem implements FluidSnapshotManager {
+    @In
+    private EntityManager entityManager;
+
+    @In
+    private Time time;
+
+    /** The last captured state of each active fluid inventory, shared by every snapshot it appears in */
+    private Map<EntityRef, FluidContainerState> states = new HashMap<>();
+    /** The active fluid inventories changed since their state was last captured */
+    private Set<EntityRef> dirty = new HashSet<>();
+
+    @Override
+    public void postBegin() {
+        for (EntityRef container : entityManager.getEntitiesWith(FluidInventoryComponent.class)) {
+            dirty.add(container);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        states.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Starts tracking a fluid inventory when it becomes active.
+     *
+     * @param event     Event that indicates the activation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerActivated(OnActivatedComponent event, EntityRef container) {
+        dirty.add(container);
+    }
+
+    /**
+     * Marks a fluid inventory as changed when its slots change.
+     *
+     * @param event     Event that indicates the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerChanged(OnChangedComponent event, EntityRef container) {
+        dirty.add(container);
+    }
+
+    /**
+     * Marks a fluid inventory as changed when the volume of one of its fluids changes.
+     *
+     * @param event     Event that indicates the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onFluidVolumeChanged(FluidVolumeChangedInInventory event, EntityRef container) {
+        dirty.add(container);
+    }
+
+    /**
+     * Stops tracking a fluid inventory when it is unloaded or destroyed.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        states.remove(container);
+        dirty.remove(container);
+    }
+
+    @Override
+    public FluidSnapshot capture() {
+        for (EntityRef container : dirty) {
+            refreshState(container);
+        }
+        dirty.clear();
+        return new FluidSnapshot(time.getGameTimeInMs(), new HashMap<>(states));
+    }
+
+    @Override
+    public FluidSnapshot capture(Collection<EntityRef> containers) {
+        Map<EntityRef, FluidContainerState> snapshotStates = new HashMap<>();
+        for (EntityRef container : containers) {
+            FluidContainerState state = getCurrentState(container);
+            if (state != null) {
+                snapshotStates.put(container, state);
+            }
+        }
+        return new FluidSnapshot(time.getGameTimeInMs(), snapshotStates);
+    }
+
+    @Override
+    public void restore(EntityRef instigator, FluidSnapshot snapshot) {
+        for (EntityRef container : snapshot.getContainers()) {
+            FluidContainerState target = snapshot.getState(container);
+            FluidContainerState current = getCurrentState(container);
+            if (current == null || current == target) {
+                continue;
+            }
+            restoreContainer(instigator, container, target);
+
+            // The events sent while restoring marked the container as changed, but its state is known.
+            dirty.remove(container);
+            states.put(container, target);
+        }
+    }
+
+    @Override
+    public List<FluidSnapshotDifference> diff(FluidSnapshot before, FluidSnapshot after) {
+        List<FluidSnapshotDifference> differences = new ArrayList<>();
+        for (EntityRef container : before.getContainers()) {
+            FluidContainerState stateBefore = before.getState(container);
+            FluidContainerState stateAfter = after.getState(container);
+            // States are shared between snapshots as long as the container doesn't change.
+            if (stateBefore != stateAfter) {
+                diffContainer(container, stateBefore, stateAfter, differences);
+            }
+        }
+        for (EntityRef container : after.getContainers()) {
+            if (before.getState(container) == null) {
+                diffContainer(container, null, after.getState(container), differences);
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Gets the state of a fluid inventory, copying it only if it changed since it was last captured.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @return          The current state, or null if the entity has no fluid inventory
+     */
+    private FluidContainerState getCurrentState(EntityRef container) {
+        if (dirty.remove(container)) {
+            refreshState(container);
+        }
+        FluidContainerState state = states.get(container);
+        if (state == null) {
+            // Not tracked, for example because it isn't active; copy it without keeping it.
+            FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+            return fluidInventory != null ? FluidContainerState.of(fluidInventory) : null;
+        }
+        return state;
+    }
+
+    private void refreshState(EntityRef container) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        if (fluidInventory == null) {
+            states.remove(container);
+            return;
+        }
+        FluidContainerState state = FluidContainerState.of(fluidInventory);
+        // Keep the previous state if nothing actually changed, so snapshots can still share it.
+        if (!state.equals(states.get(container))) {
+            states.put(container, state);
+        }
+    }
+
+    /**
+     * Changes the slots of a fluid inventory to match a recorded state, sending the usual volume change events.
+     *
+     * @param instigator The entity that's instigating this action
+     * @param container  The entity that houses the fluid inventory
+     * @param target     The state to restore
+     */
+    private void restoreContainer(EntityRef instigator, EntityRef container, FluidContainerState target) {
+        FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+        List<EntityRef> fluidSlots = fluidInventory.fluidSlots;
+        List<Float> maximumVolumes = fluidInventory.maximumVolumes;
+        int slotCount = target.getSlotCount();
+
+        while (fluidSlots.size() > slotCount) {
+            int slot = fluidSlots.size() - 1;
+            setSlot(instigator, container, fluidInventory, slot, null, 0);
+            fluidSlots.remove(slot);
+        }
+        while (fluidSlots.size() < slotCount) {
+            fluidSlots.add(EntityRef.NULL);
+        }
+        while (maximumVolumes.size() > slotCount) {
+            maximumVolumes.remove(maximumVolumes.size() - 1);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slot < maximumVolumes.size()) {
+                maximumVolumes.set(slot, target.getMaximumVolume(slot));
+            } else {
+                maximumVolumes.add(target.getMaximumVolume(slot));
+            }
+            setSlot(instigator, container, fluidInventory, slot, target.getFluidType(slot), target.getVolume(slot));
+        }
+        container.saveComponent(fluidInventory);
+    }
+
+    private void setSlot(EntityRef instigator, EntityRef container, FluidInventoryComponent fluidInventory, int slot,
+                         String fluidType, float volume) {
+        EntityRef fluidEntity = fluidInventory.fluidSlots.get(slot);
+        FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+        String oldFluidType = fluid != null ? fluid.fluidType : null;
+        float oldVolume = fluid != null ? fluid.volume : 0;
+        if (Objects.equals(oldFluidType, fluidType) && Float.compare(oldVolume, volume) == 0) {
+            return;
+        }
+
+        if (fluidType == null) {
+            fluidEntity.destroy();
+            fluidInventory.fluidSlots.set(slot, EntityRef.NULL);
+        } else if (fluid != null) {
+            fluid.fluidType = fluidType;
+            fluid.volume = volume;
+            fluidEntity.saveComponent(fluid);
+        } else {
+            FluidComponent fluidComponent = new FluidComponent();
+            fluidComponent.fluidType = fluidType;
+            fluidComponent.volume = volume;
+            EntityRef newFluidEntity = entityManager.create(fluidComponent);
+            newFluidEntity.addComponent(FluidUtils.newSlotNetworkComponent());
+            fluidInventory.fluidSlots.set(slot, newFluidEntity);
+        }
+
+        float volumeBefore = oldVolume;
+        if (oldFluidType != null && !oldFluidType.equals(fluidType)) {
+            container.send(new FluidVolumeChangedInInventory(instigator, oldFluidType, slot, oldVolume, 0));
+            oldVolume = 0;
+        }
+        if (fluidType != null) {
+            container.send(new FluidVolumeChangedInInventory(instigator, fluidType, slot, oldVolume, volume));
+        }
+        FluidLevelTriggers.check(container, instigator, fluidType != null ? fluidType : oldFluidType, slot, volumeBefore,
+                fluidType != null ? volume : 0);
+    }
+
+    private static void diffContainer(EntityRef container, FluidContainerState before, FluidContainerState after,
+                                      List<FluidSnapshotDifference> differences) {
+        int slotCount = Math.max(before != null ? before.getSlotCount() : 0, after != null ? after.getSlotCount() : 0);
+        for (int slot = 0; slot < slotCount; slot++) {
+            boolean inBefore = before != null && slot < before.getSlotCount();
+            boolean inAfter = after != null && slot < after.getSlotCount();
+            String fluidTypeBefore = inBefore ? before.getFluidType(slot) : null;
+            float volumeBefore = inBefore ? before.getVolume(slot) : 0;
+            String fluidTypeAfter = inAfter ? after.getFluidType(slot) : null;
+            float volumeAfter = inAfter ? after.getVolume(slot) : 0;
+            if (!Objects.equals(fluidTypeBefore, fluidTypeAfter) || Float.compare(volumeBefore, volumeAfter) != 0) {
+                differences.add(new FluidSnapshotDifference(container, slot, fluidTypeBefore, volumeBefore,
+                        fluidTypeAfter, volumeAfter));
+            }
+        }
+    }
+}
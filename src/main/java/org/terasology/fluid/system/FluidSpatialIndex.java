@@ -0,0 +1,46 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3fc;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.List;
+
+/**
+ * A spatial index of the fluid inventories in the world, used to look up nearby containers without iterating every
+ * entity with a fluid inventory.
+ */
+public interface FluidSpatialIndex {
+    /**
+     * Finds all indexed fluid inventories within a given distance that hold enough of a fluid.
+     *
+     * @param center        The position to search around
+     * @param radius        The maximum distance from the center, in blocks
+     * @param fluidType     The type of fluid the containers must hold, or null to accept any container
+     * @param minimumVolume The minimum total volume of the fluid the containers must hold
+     * @return              The matching containers, in no particular order
+     */
+    List<EntityRef> findInRange(Vector3fc center, float radius, String fluidType, float minimumVolume);
+
+    /**
+     * Finds the closest indexed fluid inventories that hold enough of a fluid.
+     *
+     * @param center        The position to search around
+     * @param count         The maximum number of containers to return
+     * @param maxRadius     The maximum distance from the center, in blocks
+     * @param fluidType     The type of fluid the containers must hold, or null to accept any container
+     * @param minimumVolume The minimum total volume of the fluid the containers must hold
+     * @return              The matching containers, nearest first
+     */
+    List<EntityRef> findNearest(Vector3fc center, int count, float maxRadius, String fluidType, float minimumVolume);
+
+    /**
+     * Returns the total volume of a fluid held by an indexed container, summed over all of its slots.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param fluidType The type of fluid
+     * @return          The indexed volume, or 0 if the container is not indexed
+     */
+    float getIndexedVolume(EntityRef container, String fluidType);
+}
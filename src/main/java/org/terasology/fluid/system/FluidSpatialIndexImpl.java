@@ -0,0 +1,298 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Keeps fluid inventories with a location in a uniform grid, together with the total volume of each fluid type they
+ * hold. The index is updated incrementally from location changes and fluid volume change events.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidSpatialIndex.class)
+public class FluidSpatialIndexImpl extends BaseComponentSystem implements FluidSpatialIndex {
+    /**
+     * The edge length of a grid cell, in blocks.
+     */
+    private static final int CELL_SIZE = 16;
+
+    private Map<EntityRef, IndexEntry> entries = new HashMap<>();
+    private Map<Vector3i, Set<IndexEntry>> cells = new HashMap<>();
+
+    @Override
+    public void shutdown() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * Adds a fluid inventory to the index when it, or its location, becomes active.
+     *
+     * @param event     Event that indicates the activation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidInventoryComponent.class, LocationComponent.class})
+    public void onContainerActivated(OnActivatedComponent event, EntityRef container) {
+        removeEntry(container);
+
+        IndexEntry entry = new IndexEntry(container);
+        if (!entry.updatePosition()) {
+            return;
+        }
+        entry.recomputeTotals();
+        entries.put(container, entry);
+        cells.computeIfAbsent(entry.cell, key -> new HashSet<>()).add(entry);
+    }
+
+    /**
+     * Moves an indexed fluid inventory to a different grid cell when its location changes.
+     *
+     * @param event     Event that indicates the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidInventoryComponent.class, LocationComponent.class})
+    public void onContainerMoved(OnChangedComponent event, EntityRef container) {
+        IndexEntry entry = entries.get(container);
+        if (entry == null) {
+            return;
+        }
+        Vector3i oldCell = new Vector3i(entry.cell);
+        if (!entry.updatePosition()) {
+            removeEntry(container);
+            return;
+        }
+        if (!oldCell.equals(entry.cell)) {
+            removeFromCell(oldCell, entry);
+            cells.computeIfAbsent(entry.cell, key -> new HashSet<>()).add(entry);
+        }
+    }
+
+    /**
+     * Removes a fluid inventory from the index when it, or its location, is deactivated.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = {FluidInventoryComponent.class, LocationComponent.class})
+    public void onContainerDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        removeEntry(container);
+    }
+
+    /**
+     * Updates the per-type totals of an indexed fluid inventory.
+     *
+     * @param event     Event that describes the change in volume
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onFluidVolumeChanged(FluidVolumeChangedInInventory event, EntityRef container) {
+        IndexEntry entry = entries.get(container);
+        if (entry != null) {
+            entry.addVolume(event.getFluidType(), event.getVolumeAfter() - event.getVolumeBefore());
+        }
+    }
+
+    @Override
+    public List<EntityRef> findInRange(Vector3fc center, float radius, String fluidType, float minimumVolume) {
+        List<EntityRef> result = new ArrayList<>();
+        float radiusSquared = radius * radius;
+        Vector3i min = toCell(center.x() - radius, center.y() - radius, center.z() - radius, new Vector3i());
+        Vector3i max = toCell(center.x() + radius, center.y() + radius, center.z() + radius, new Vector3i());
+        Vector3i cell = new Vector3i();
+        for (int x = min.x; x <= max.x; x++) {
+            for (int y = min.y; y <= max.y; y++) {
+                for (int z = min.z; z <= max.z; z++) {
+                    Set<IndexEntry> cellEntries = cells.get(cell.set(x, y, z));
+                    if (cellEntries == null) {
+                        continue;
+                    }
+                    for (IndexEntry entry : cellEntries) {
+                        if (entry.position.distanceSquared(center) <= radiusSquared && entry.holds(fluidType, minimumVolume)) {
+                            result.add(entry.container);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<EntityRef> findNearest(Vector3fc center, int count, float maxRadius, String fluidType, float minimumVolume) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        float maxRadiusSquared = maxRadius * maxRadius;
+        Map<IndexEntry, Float> distances = new HashMap<>();
+        // Farthest candidate at the head, so it can be evicted once a closer one is found
+        PriorityQueue<IndexEntry> nearest = new PriorityQueue<>(
+                Comparator.comparing((IndexEntry entry) -> distances.get(entry), Comparator.reverseOrder()));
+
+        Vector3i centerCell = toCell(center.x(), center.y(), center.z(), new Vector3i());
+        int maxRing = (int) Math.ceil(maxRadius / CELL_SIZE) + 1;
+        Vector3i cell = new Vector3i();
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int x = -ring; x <= ring; x++) {
+                for (int y = -ring; y <= ring; y++) {
+                    for (int z = -ring; z <= ring; z++) {
+                        // Only visit the shell of the cube, the inside was covered by the previous rings
+                        if (Math.max(Math.abs(x), Math.max(Math.abs(y), Math.abs(z))) != ring) {
+                            continue;
+                        }
+                        Set<IndexEntry> cellEntries = cells.get(cell.set(centerCell).add(x, y, z));
+                        if (cellEntries == null) {
+                            continue;
+                        }
+                        for (IndexEntry entry : cellEntries) {
+                            float distanceSquared = entry.position.distanceSquared(center);
+                            if (distanceSquared > maxRadiusSquared || !entry.holds(fluidType, minimumVolume)) {
+                                continue;
+                            }
+                            if (nearest.size() < count) {
+                                distances.put(entry, distanceSquared);
+                                nearest.add(entry);
+                            } else if (distanceSquared < distances.get(nearest.peek())) {
+                                distances.remove(nearest.poll());
+                                distances.put(entry, distanceSquared);
+                                nearest.add(entry);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Anything in the rings further out is at least this far away from the center.
+            float reached = ring * CELL_SIZE;
+            if (nearest.size() == count && distances.get(nearest.peek()) <= reached * reached) {
+                break;
+            }
+        }
+
+        List<IndexEntry> sorted = new ArrayList<>(nearest);
+        sorted.sort(Comparator.comparing(entry -> distances.get(entry)));
+        List<EntityRef> result = new ArrayList<>(sorted.size());
+        for (IndexEntry entry : sorted) {
+            result.add(entry.container);
+        }
+        return result;
+    }
+
+    @Override
+    public float getIndexedVolume(EntityRef container, String fluidType) {
+        IndexEntry entry = entries.get(container);
+        if (entry == null) {
+            return 0;
+        }
+        return entry.totals.getOrDefault(fluidType, 0f);
+    }
+
+    private void removeEntry(EntityRef container) {
+        IndexEntry entry = entries.remove(container);
+        if (entry != null) {
+            removeFromCell(entry.cell, entry);
+        }
+    }
+
+    private void removeFromCell(Vector3i cell, IndexEntry entry) {
+        Set<IndexEntry> cellEntries = cells.get(cell);
+        if (cellEntries != null) {
+            cellEntries.remove(entry);
+            if (cellEntries.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private static Vector3i toCell(float x, float y, float z, Vector3i dest) {
+        return dest.set(
+                (int) Math.floor(x / CELL_SIZE),
+                (int) Math.floor(y / CELL_SIZE),
+                (int) Math.floor(z / CELL_SIZE));
+    }
+
+    /**
+     * The indexed state of a single fluid inventory.
+     */
+    private static final class IndexEntry {
+        private final EntityRef container;
+        private final Vector3f position = new Vector3f();
+        private final Vector3i cell = new Vector3i();
+        private final Map<String, Float> totals = new HashMap<>();
+
+        private IndexEntry(EntityRef container) {
+            this.container = container;
+        }
+
+        /**
+         * Reads the current location of the container.
+         *
+         * @return Whether the container has a valid world position
+         */
+        private boolean updatePosition() {
+            LocationComponent location = container.getComponent(LocationComponent.class);
+            if (location == null) {
+                return false;
+            }
+            location.getWorldPosition(position);
+            if (!position.isFinite()) {
+                return false;
+            }
+            toCell(position.x, position.y, position.z, cell);
+            return true;
+        }
+
+        private void recomputeTotals() {
+            totals.clear();
+            FluidInventoryComponent fluidInventory = container.getComponent(FluidInventoryComponent.class);
+            if (fluidInventory == null) {
+                return;
+            }
+            for (EntityRef fluidEntity : fluidInventory.fluidSlots) {
+                FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
+                if (fluid != null) {
+                    addVolume(fluid.fluidType, fluid.volume);
+                }
+            }
+        }
+
+        private void addVolume(String fluidType, float delta) {
+            float total = totals.getOrDefault(fluidType, 0f) + delta;
+            if (total > 0) {
+                totals.put(fluidType, total);
+            } else {
+                totals.remove(fluidType);
+            }
+        }
+
+        private boolean holds(String fluidType, float minimumVolume) {
+            if (fluidType == null) {
+                return true;
+            }
+            return totals.getOrDefault(fluidType, 0f) >= minimumVolume;
+        }
+    }
+}
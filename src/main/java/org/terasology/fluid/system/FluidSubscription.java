@@ -0,0 +1,21 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+/**
+ * A subscription to the changes of a fluid inventory, as returned by the {@link FluidSubscriptionManager}.
+ */
+public interface FluidSubscription {
+    /**
+     * Stops the delivery of changes. Changes already pending for this tick are dropped.
+     */
+    void cancel();
+
+    /**
+     * Accessor function that returns whether changes are still being delivered. A subscription ends when it is
+     * cancelled or when its fluid inventory is unloaded or destroyed.
+     *
+     * @return Whether the subscription is active
+     */
+    boolean isActive();
+}
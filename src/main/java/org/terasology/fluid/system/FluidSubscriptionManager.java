@@ -0,0 +1,34 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Delivers the changes of individual fluid inventories to the code interested in them, so that it doesn't have to
+ * receive the {@link org.terasology.fluid.event.FluidVolumeChangedInInventory} events of every fluid inventory.
+ * <p>
+ * Changes are coalesced per slot and delivered once at the end of the tick, so a listener is called at most once per
+ * tick and fluid inventory however busy the fluid inventory is. Only changes made on the authority are seen.
+ */
+public interface FluidSubscriptionManager {
+    /**
+     * Subscribes to the changes of every slot of a fluid inventory.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param listener  The listener to deliver the changes to
+     * @return          The subscription
+     */
+    FluidSubscription subscribe(EntityRef container, FluidVolumeListener listener);
+
+    /**
+     * Subscribes to the changes of a fluid inventory, restricted to a slot and a type of fluid.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param slot      The slot number to deliver changes for, or -1 for every slot
+     * @param fluidType The type of fluid to deliver changes for, or null for every type
+     * @param listener  The listener to deliver the changes to
+     * @return          The subscription
+     */
+    FluidSubscription subscribe(EntityRef container, int slot, String fluidType, FluidVolumeListener listener);
+}
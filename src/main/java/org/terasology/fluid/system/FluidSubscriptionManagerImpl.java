@@ -0,0 +1,253 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.Share;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.event.FluidVolumeChangedInInventory;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects the fluid volume changes of fluid inventories someone subscribed to, and delivers them at the end of the
+ * tick. An implementation of the FluidSubscriptionManager interface.
+ * <p>
+ * A change to a fluid inventory nobody subscribed to costs a single map lookup. Pending changes are kept per slot, so
+ * their number is bounded by the number of slots whatever the rate of change.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidSubscriptionManager.class)
+public class FluidSubscriptionManagerImpl extends BaseComponentSystem implements FluidSubscriptionManager, UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(FluidSubscriptionManagerImpl.class);
+
+    private Map<EntityRef, ContainerSubscriptions> subscriptions = new HashMap<>();
+    /** The fluid inventories with pending changes, in the order they first changed this tick */
+    private List<ContainerSubscriptions> changedContainers = new ArrayList<>();
+
+    @Override
+    public void shutdown() {
+        for (ContainerSubscriptions containerSubscriptions : subscriptions.values()) {
+            containerSubscriptions.end();
+        }
+        subscriptions.clear();
+        changedContainers.clear();
+    }
+
+    @Override
+    public FluidSubscription subscribe(EntityRef container, FluidVolumeListener listener) {
+        return subscribe(container, -1, null, listener);
+    }
+
+    @Override
+    public FluidSubscription subscribe(EntityRef container, int slot, String fluidType, FluidVolumeListener listener) {
+        ContainerSubscriptions containerSubscriptions = subscriptions.computeIfAbsent(container, ContainerSubscriptions::new);
+        Subscription subscription = new Subscription(containerSubscriptions, slot, fluidType, listener);
+        containerSubscriptions.subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Records a change of a fluid inventory somebody subscribed to.
+     *
+     * @param event     Event with the details of the change
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onVolumeChanged(FluidVolumeChangedInInventory event, EntityRef container) {
+        ContainerSubscriptions containerSubscriptions = subscriptions.get(container);
+        if (containerSubscriptions == null) {
+            return;
+        }
+        if (containerSubscriptions.pending.isEmpty()) {
+            changedContainers.add(containerSubscriptions);
+        }
+        for (PendingChange change : containerSubscriptions.pending) {
+            if (change.slot == event.getSlot()) {
+                change.fluidTypeAfter = event.getFluidType();
+                change.volumeAfter = event.getVolumeAfter();
+                change.changeCount++;
+                return;
+            }
+        }
+        containerSubscriptions.pending.add(new PendingChange(event));
+    }
+
+    /**
+     * Ends the subscriptions of a fluid inventory that is unloaded or destroyed.
+     *
+     * @param event     Event that indicates the deactivation
+     * @param container The entity that houses the fluid inventory
+     */
+    @ReceiveEvent(components = FluidInventoryComponent.class)
+    public void onContainerDeactivated(BeforeDeactivateComponent event, EntityRef container) {
+        ContainerSubscriptions containerSubscriptions = subscriptions.remove(container);
+        if (containerSubscriptions != null) {
+            containerSubscriptions.end();
+            changedContainers.remove(containerSubscriptions);
+        }
+    }
+
+    /**
+     * Delivers the changes collected during the tick.
+     *
+     * @param delta The time elapsed since the last update
+     */
+    @Override
+    public void update(float delta) {
+        if (changedContainers.isEmpty()) {
+            return;
+        }
+        List<ContainerSubscriptions> delivering = changedContainers;
+        changedContainers = new ArrayList<>();
+        for (ContainerSubscriptions containerSubscriptions : delivering) {
+            List<FluidSlotChange> changes = new ArrayList<>(containerSubscriptions.pending.size());
+            for (PendingChange change : containerSubscriptions.pending) {
+                if (change.volumeBefore != change.volumeAfter || !Objects.equals(change.fluidTypeBefore, change.fluidTypeAfter)) {
+                    changes.add(change.toSlotChange());
+                }
+            }
+            containerSubscriptions.pending.clear();
+            if (changes.isEmpty()) {
+                continue;
+            }
+            changes = Collections.unmodifiableList(changes);
+
+            // Listeners may subscribe or cancel while being notified.
+            for (Subscription subscription : new ArrayList<>(containerSubscriptions.subscriptions)) {
+                if (subscription.active) {
+                    deliver(containerSubscriptions.container, subscription, changes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delivers the changes of a fluid inventory to a subscription, restricted to the slot and fluid type it covers.
+     *
+     * @param container    The entity that houses the fluid inventory
+     * @param subscription The subscription to deliver to
+     * @param changes      All the changes of the fluid inventory
+     */
+    private static void deliver(EntityRef container, Subscription subscription, List<FluidSlotChange> changes) {
+        List<FluidSlotChange> covered = changes;
+        if (subscription.slot >= 0 || subscription.fluidType != null) {
+            covered = new ArrayList<>();
+            for (FluidSlotChange change : changes) {
+                if (subscription.covers(change)) {
+                    covered.add(change);
+                }
+            }
+            if (covered.isEmpty()) {
+                return;
+            }
+            covered = Collections.unmodifiableList(covered);
+        }
+        try {
+            subscription.listener.onFluidVolumesChanged(container, covered);
+        } catch (RuntimeException e) {
+            logger.error("Fluid volume listener failed for {}", container, e);
+        }
+    }
+
+    /**
+     * The subscriptions to a fluid inventory, and the changes it went through during the tick.
+     */
+    private final class ContainerSubscriptions {
+        private final EntityRef container;
+        private final List<Subscription> subscriptions = new ArrayList<>();
+        private final List<PendingChange> pending = new ArrayList<>();
+
+        private ContainerSubscriptions(EntityRef container) {
+            this.container = container;
+        }
+
+        private void remove(Subscription subscription) {
+            subscriptions.remove(subscription);
+            if (subscriptions.isEmpty() && FluidSubscriptionManagerImpl.this.subscriptions.get(container) == this) {
+                FluidSubscriptionManagerImpl.this.subscriptions.remove(container);
+                changedContainers.remove(this);
+                pending.clear();
+            }
+        }
+
+        private void end() {
+            for (Subscription subscription : subscriptions) {
+                subscription.active = false;
+            }
+            subscriptions.clear();
+            pending.clear();
+        }
+    }
+
+    /**
+     * The state of a slot before its first and after its last change during the tick.
+     */
+    private static final class PendingChange {
+        private final int slot;
+        private final String fluidTypeBefore;
+        private final float volumeBefore;
+        private String fluidTypeAfter;
+        private float volumeAfter;
+        private int changeCount;
+
+        private PendingChange(FluidVolumeChangedInInventory event) {
+            this.slot = event.getSlot();
+            this.fluidTypeBefore = event.getFluidType();
+            this.volumeBefore = event.getVolumeBefore();
+            this.fluidTypeAfter = event.getFluidType();
+            this.volumeAfter = event.getVolumeAfter();
+            this.changeCount = 1;
+        }
+
+        private FluidSlotChange toSlotChange() {
+            return new FluidSlotChange(slot, fluidTypeBefore, volumeBefore, fluidTypeAfter, volumeAfter, changeCount);
+        }
+    }
+
+    private static final class Subscription implements FluidSubscription {
+        private final ContainerSubscriptions containerSubscriptions;
+        private final int slot;
+        private final String fluidType;
+        private final FluidVolumeListener listener;
+        private boolean active = true;
+
+        private Subscription(ContainerSubscriptions containerSubscriptions, int slot, String fluidType, FluidVolumeListener listener) {
+            this.containerSubscriptions = containerSubscriptions;
+            this.slot = slot;
+            this.fluidType = fluidType;
+            this.listener = listener;
+        }
+
+        private boolean covers(FluidSlotChange change) {
+            return (slot < 0 || slot == change.getSlot())
+                    && (fluidType == null || fluidType.equals(change.getFluidTypeBefore()) || fluidType.equals(change.getFluidTypeAfter()));
+        }
+
+        @Override
+        public void cancel() {
+            if (active) {
+                active = false;
+                containerSubscriptions.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+    }
+}
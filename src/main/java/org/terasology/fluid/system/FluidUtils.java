@@ -2,18 +2,39 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.fluid.system;
 
+import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.network.NetworkComponent;
+import org.terasology.engine.registry.CoreRegistry;
 import org.terasology.fluid.component.FluidComponent;
 import org.terasology.fluid.component.FluidContainerItemComponent;
 import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidPassiveRateComponent;
+import org.terasology.fluid.component.FluidSummaryComponent;
 
 /**
  * A set of utilities for managing fluids.
  */
 public final class FluidUtils {
+    /** The volume below which a difference between two fluid volumes is considered a rounding error, in litres */
+    public static final float VOLUME_EPSILON = 0.001f;
+
     private FluidUtils() {
     }
 
+    /**
+     * Creates the network component of a fluid slot entity. Slot entities are only replicated to their owner, which is
+     * the client currently viewing their fluid inventory; other clients make do with its
+     * {@link org.terasology.fluid.component.FluidSummaryComponent}.
+     *
+     * @return The network component
+     */
+    public static NetworkComponent newSlotNetworkComponent() {
+        NetworkComponent networkComponent = new NetworkComponent();
+        networkComponent.replicateMode = NetworkComponent.ReplicateMode.OWNER;
+        return networkComponent;
+    }
+
     /**
      * Sets the fluid type of a fluid container. This also fills the container up to capacity.
      *
@@ -57,7 +78,8 @@ public final class FluidUtils {
     }
 
     /**
-     * Get the fluid type of the fluid stored in this particular fluid inventory slot.
+     * Get the fluid type of the fluid stored in this particular fluid inventory slot. On a client that isn't viewing the
+     * fluid inventory, this comes from its {@link FluidSummaryComponent}.
      *
      * @param entity        Reference to entity that houses the fluid inventory component.
      * @param slot          Slot number of the fluid inventory to access.
@@ -65,18 +87,33 @@ public final class FluidUtils {
     public static String getFluidAt(EntityRef entity, int slot) {
         FluidInventoryComponent fluidInventoryComponent = entity.getComponent(FluidInventoryComponent.class);
         if (fluidInventoryComponent != null) {
-            EntityRef fluidEntity = fluidInventoryComponent.fluidSlots.get(slot);
-            FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
-            if (fluid != null) {
-                return fluid.fluidType;
+            FluidComponent fluid = fluidInventoryComponent.fluidSlots.get(slot).getComponent(FluidComponent.class);
+            String fluidType = fluid != null ? fluid.fluidType : null;
+            float volume = fluid != null ? fluid.volume : 0;
+            if (fluid == null) {
+                // Empty slots have no slot entity, but neither do slots of a fluid inventory this client isn't viewing,
+                // so trust a summary reporting the slot as filled.
+                FluidSummaryComponent summary = entity.getComponent(FluidSummaryComponent.class);
+                if (isFilledInSummary(summary, slot)) {
+                    fluidType = summary.fluidTypes.get(slot);
+                    volume = summary.fillFractions.get(slot) * fluidInventoryComponent.maximumVolumes.get(slot);
+                }
             }
+            FluidPassiveRateComponent passiveRates = entity.getComponent(FluidPassiveRateComponent.class);
+            if (passiveRates != null) {
+                float passiveVolume = getPassiveVolume(passiveRates, slot, fluidType, volume,
+                        fluidInventoryComponent.maximumVolumes.get(slot), getGameTimeInMs());
+                return passiveVolume > VOLUME_EPSILON ? getPassiveFluidType(passiveRates, slot, fluidType) : null;
+            }
+            return fluidType;
         }
 
         return null;
     }
 
     /**
-     * Get the volume of fluid stored in this particular fluid inventory slot.
+     * Get the volume of fluid stored in this particular fluid inventory slot. On a client that isn't viewing the fluid
+     * inventory, this is estimated from its {@link FluidSummaryComponent}.
      *
      * @param entity        Reference to entity that houses the fluid inventory component.
      * @param slot          Slot number of the fluid inventory to access.
@@ -84,16 +121,40 @@ public final class FluidUtils {
     public static float getFluidAmount(EntityRef entity, int slot) {
         FluidInventoryComponent fluidInventoryComponent = entity.getComponent(FluidInventoryComponent.class);
         if (fluidInventoryComponent != null) {
-            EntityRef fluidEntity = fluidInventoryComponent.fluidSlots.get(slot);
-            FluidComponent fluid = fluidEntity.getComponent(FluidComponent.class);
-            if (fluid != null) {
-                return fluid.volume;
+            FluidComponent fluid = fluidInventoryComponent.fluidSlots.get(slot).getComponent(FluidComponent.class);
+            String fluidType = fluid != null ? fluid.fluidType : null;
+            float volume = fluid != null ? fluid.volume : 0;
+            if (fluid == null) {
+                FluidSummaryComponent summary = entity.getComponent(FluidSummaryComponent.class);
+                if (isFilledInSummary(summary, slot)) {
+                    fluidType = summary.fluidTypes.get(slot);
+                    volume = summary.fillFractions.get(slot) * fluidInventoryComponent.maximumVolumes.get(slot);
+                }
+            }
+            FluidPassiveRateComponent passiveRates = entity.getComponent(FluidPassiveRateComponent.class);
+            if (passiveRates != null) {
+                float passiveVolume = getPassiveVolume(passiveRates, slot, fluidType, volume,
+                        fluidInventoryComponent.maximumVolumes.get(slot), getGameTimeInMs());
+                return passiveVolume > VOLUME_EPSILON ? passiveVolume : 0;
             }
+            return volume;
         }
 
         return 0;
     }
 
+    /**
+     * Checks whether the summary of a fluid inventory reports a slot as holding some fluid.
+     *
+     * @param summary The summary of the fluid inventory, or null if it has none
+     * @param slot    Slot number of the fluid inventory
+     * @return        Whether the summary reports fluid in the slot
+     */
+    private static boolean isFilledInSummary(FluidSummaryComponent summary, int slot) {
+        return summary != null && slot < summary.fluidTypes.size() && slot < summary.fillFractions.size()
+                && summary.fluidTypes.get(slot) != null;
+    }
+
     /**
      * Get the number of slots present in this fluid inventory.
      *
@@ -106,4 +167,54 @@ public final class FluidUtils {
         }
         return 0;
     }
+
+    /**
+     * Get the type of fluid the passive rate of a fluid inventory slot applies to.
+     *
+     * @param passiveRates The passive rates of the fluid inventory
+     * @param slot         Slot number of the fluid inventory
+     * @param fluidType    The type of fluid in the slot, or null if it is empty
+     * @return             The type of fluid the rate applies to, or null if it doesn't apply
+     */
+    static String getPassiveFluidType(FluidPassiveRateComponent passiveRates, int slot, String fluidType) {
+        if (slot >= passiveRates.rates.size()) {
+            return null;
+        }
+        float rate = passiveRates.rates.get(slot);
+        if (rate < 0) {
+            return fluidType;
+        }
+        String fillType = slot < passiveRates.fluidTypes.size() ? passiveRates.fluidTypes.get(slot) : null;
+        if (fluidType == null || fillType == null) {
+            return fluidType != null ? fluidType : fillType;
+        }
+        return fluidType.equals(fillType) ? fluidType : null;
+    }
+
+    /**
+     * Work out the volume of a fluid inventory slot at a point in time, given its passive rate.
+     *
+     * @param passiveRates  The passive rates of the fluid inventory
+     * @param slot          Slot number of the fluid inventory
+     * @param fluidType     The type of fluid in the slot as last written, or null if it is empty
+     * @param volume        The volume of fluid in the slot as last written
+     * @param maximumVolume The maximum volume of the slot
+     * @param time          The game time, in milliseconds
+     * @return              The volume of fluid in the slot at that time
+     */
+    static float getPassiveVolume(FluidPassiveRateComponent passiveRates, int slot, String fluidType, float volume,
+                                  float maximumVolume, long time) {
+        // A slot without a clock yet hasn't been started, so nothing has accrued in it.
+        if (slot >= passiveRates.lastUpdates.size() || time <= passiveRates.lastUpdates.get(slot)
+                || getPassiveFluidType(passiveRates, slot, fluidType) == null) {
+            return volume;
+        }
+        float change = passiveRates.rates.get(slot) * (time - passiveRates.lastUpdates.get(slot)) / 1000f;
+        return Math.max(0, Math.min(maximumVolume, volume + change));
+    }
+
+    private static long getGameTimeInMs() {
+        Time time = CoreRegistry.get(Time.class);
+        return time != null ? time.getGameTimeInMs() : 0;
+    }
 }
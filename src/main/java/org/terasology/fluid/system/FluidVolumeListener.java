@@ -0,0 +1,21 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.List;
+
+/**
+ * Receives the changes of a fluid inventory it subscribed to through the {@link FluidSubscriptionManager}.
+ */
+@FunctionalInterface
+public interface FluidVolumeListener {
+    /**
+     * Called at the end of a tick in which slots of the fluid inventory changed.
+     *
+     * @param container The entity that houses the fluid inventory
+     * @param changes   The net change of each slot the subscription covers, in the order the slots first changed
+     */
+    void onFluidVolumesChanged(EntityRef container, List<FluidSlotChange> changes);
+}
@@ -0,0 +1,161 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+/**
+ * The liquid type and volume of every block of a region of the world, packed into two arrays. Blocks are indexed with
+ * X varying fastest, then Y, then Z, relative to the minimum corner of the region; see {@link #getIndex}.
+ */
+public final class FluidVolumeSample {
+    /** The fluid id of blocks holding no registered liquid */
+    public static final short NO_FLUID = -1;
+    /** The fluid id of blocks in chunks that aren't loaded */
+    public static final short UNLOADED = -2;
+
+    private final Vector3i min;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final short[] fluidIds;
+    private final float[] volumes;
+    private final double[] totalVolumes;
+
+    /**
+     * Parametrized constructor.
+     *
+     * @param min          The minimum corner of the region
+     * @param sizeX        The size of the region along the X axis
+     * @param sizeY        The size of the region along the Y axis
+     * @param sizeZ        The size of the region along the Z axis
+     * @param fluidIds     The fluid id of each block, as given by {@link FluidRegistry#getFluidId}
+     * @param volumes      The volume of liquid in each block, in litres
+     * @param totalVolumes The total volume of each fluid in the region, indexed by fluid id
+     */
+    FluidVolumeSample(Vector3ic min, int sizeX, int sizeY, int sizeZ, short[] fluidIds, float[] volumes, double[] totalVolumes) {
+        this.min = new Vector3i(min);
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.fluidIds = fluidIds;
+        this.volumes = volumes;
+        this.totalVolumes = totalVolumes;
+    }
+
+    /**
+     * Accessor function that returns the minimum corner of the region.
+     *
+     * @return The minimum corner of the region
+     */
+    public Vector3ic getMin() {
+        return min;
+    }
+
+    /**
+     * Accessor function that returns the size of the region along the X axis.
+     *
+     * @return The size of the region along the X axis
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Accessor function that returns the size of the region along the Y axis.
+     *
+     * @return The size of the region along the Y axis
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Accessor function that returns the size of the region along the Z axis.
+     *
+     * @return The size of the region along the Z axis
+     */
+    public int getSizeZ() {
+        return sizeZ;
+    }
+
+    /**
+     * Computes the index of a block in the packed arrays.
+     *
+     * @param x The world X co-ordinate of the block
+     * @param y The world Y co-ordinate of the block
+     * @param z The world Z co-ordinate of the block
+     * @return  The index of the block, or -1 if it's outside the region
+     */
+    public int getIndex(int x, int y, int z) {
+        int relativeX = x - min.x;
+        int relativeY = y - min.y;
+        int relativeZ = z - min.z;
+        if (relativeX < 0 || relativeX >= sizeX || relativeY < 0 || relativeY >= sizeY || relativeZ < 0 || relativeZ >= sizeZ) {
+            return -1;
+        }
+        return relativeX + sizeX * (relativeY + sizeY * relativeZ);
+    }
+
+    /**
+     * Accessor function that returns the fluid id of a block.
+     *
+     * @param index The index of the block
+     * @return      The fluid id, {@link #NO_FLUID} or {@link #UNLOADED}
+     */
+    public short getFluidId(int index) {
+        return fluidIds[index];
+    }
+
+    /**
+     * Accessor function that returns the volume of liquid in a block.
+     *
+     * @param index The index of the block
+     * @return      The volume of liquid, in litres
+     */
+    public float getVolume(int index) {
+        return volumes[index];
+    }
+
+    /**
+     * Accessor function that returns the packed fluid ids, for callers walking the whole region. Must not be modified.
+     *
+     * @return The fluid id of each block
+     */
+    public short[] getFluidIds() {
+        return fluidIds;
+    }
+
+    /**
+     * Accessor function that returns the packed volumes, for callers walking the whole region. Must not be modified.
+     *
+     * @return The volume of liquid in each block, in litres
+     */
+    public float[] getVolumes() {
+        return volumes;
+    }
+
+    /**
+     * Accessor function that returns the total volume of a fluid in the region.
+     *
+     * @param fluidId The fluid id
+     * @return        The total volume, in litres
+     */
+    public double getTotalVolume(int fluidId) {
+        return fluidId >= 0 && fluidId < totalVolumes.length ? totalVolumes[fluidId] : 0;
+    }
+
+    /**
+     * Accessor function that returns the total volume of all fluids in the region.
+     *
+     * @return The total volume, in litres
+     */
+    public double getTotalVolume() {
+        double total = 0;
+        for (double volume : totalVolumes) {
+            total += volume;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3ic;
+import org.terasology.engine.world.block.BlockRegionc;
+
+/**
+ * Reads the type and volume of liquid of many blocks of the world at once.
+ */
+public interface FluidWorldSampler {
+    /**
+     * Samples the liquid of every block of a region.
+     *
+     * @param region The region to sample
+     * @return       The liquid type and volume of every block of the region
+     */
+    FluidVolumeSample sample(BlockRegionc region);
+
+    /**
+     * Samples the liquid of every block of a chunk.
+     *
+     * @param chunkPos The position of the chunk
+     * @return         The liquid type and volume of every block of the chunk
+     */
+    FluidVolumeSample sampleChunk(Vector3ic chunkPos);
+}
@@ -0,0 +1,154 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.core.ComponentSystemManager;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.flowingliquids.world.block.LiquidData;
+
+import java.util.Arrays;
+
+/**
+ * Samples liquids chunk by chunk, reading blocks and liquid heights straight from the loaded chunks. Liquid heights are
+ * turned into litres through a precomputed table, and the fluid of each block type is looked up once.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidWorldSampler.class)
+public class FluidWorldSamplerImpl extends BaseComponentSystem implements FluidWorldSampler {
+    /** Marks block types whose fluid hasn't been looked up yet */
+    private static final short UNKNOWN = -3;
+
+    @In
+    private ChunkProvider chunkProvider;
+    @In
+    private FluidRegistry fluidRegistry;
+    @In
+    private ExtraBlockDataManager extraDataManager;
+    @In
+    private ComponentSystemManager componentSystemManager;
+
+    private boolean flowingLiquidsEnabled;
+    private int flowIndex;
+
+    /** The volume of liquid in a block, in litres, indexed by liquid height */
+    private float[] volumeByHeight;
+
+    /** The fluid id of each block type, indexed by block id */
+    private short[] fluidIdByBlock = new short[0];
+
+    @Override
+    public void initialise() {
+        flowingLiquidsEnabled = componentSystemManager.get("FlowingLiquids:LiquidFlowSystem") != null;
+        if (flowingLiquidsEnabled) {
+            flowIndex = extraDataManager.getSlotNumber(LiquidData.EXTRA_DATA_NAME);
+            volumeByHeight = new float[LiquidData.MAX_HEIGHT + 1];
+            for (int height = 0; height <= LiquidData.MAX_HEIGHT; height++) {
+                volumeByHeight[height] = height * FluidAuthoritySystem.FLUID_PER_BLOCK / LiquidData.MAX_HEIGHT;
+            }
+        }
+    }
+
+    @Override
+    public FluidVolumeSample sample(BlockRegionc region) {
+        int minX = region.minX();
+        int minY = region.minY();
+        int minZ = region.minZ();
+        int sizeX = region.getSizeX();
+        int sizeY = region.getSizeY();
+        int sizeZ = region.getSizeZ();
+        short[] fluidIds = new short[sizeX * sizeY * sizeZ];
+        float[] volumes = new float[fluidIds.length];
+        double[] totalVolumes = new double[fluidRegistry.getFluidCount()];
+
+        Vector3i chunkPos = new Vector3i();
+        for (int chunkZ = Chunks.toChunkPosZ(minZ); chunkZ <= Chunks.toChunkPosZ(region.maxZ()); chunkZ++) {
+            for (int chunkY = Chunks.toChunkPosY(minY); chunkY <= Chunks.toChunkPosY(region.maxY()); chunkY++) {
+                for (int chunkX = Chunks.toChunkPosX(minX); chunkX <= Chunks.toChunkPosX(region.maxX()); chunkX++) {
+                    // The part of the region inside this chunk, in world co-ordinates.
+                    int fromX = Math.max(minX, chunkX * Chunks.SIZE_X);
+                    int toX = Math.min(region.maxX(), (chunkX + 1) * Chunks.SIZE_X - 1);
+                    int fromY = Math.max(minY, chunkY * Chunks.SIZE_Y);
+                    int toY = Math.min(region.maxY(), (chunkY + 1) * Chunks.SIZE_Y - 1);
+                    int fromZ = Math.max(minZ, chunkZ * Chunks.SIZE_Z);
+                    int toZ = Math.min(region.maxZ(), (chunkZ + 1) * Chunks.SIZE_Z - 1);
+
+                    Chunk chunk = chunkProvider.getChunk(chunkPos.set(chunkX, chunkY, chunkZ));
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int y = fromY; y <= toY; y++) {
+                            int index = (fromX - minX) + sizeX * ((y - minY) + sizeY * (z - minZ));
+                            if (chunk == null) {
+                                Arrays.fill(fluidIds, index, index + toX - fromX + 1, FluidVolumeSample.UNLOADED);
+                                continue;
+                            }
+                            for (int x = fromX; x <= toX; x++, index++) {
+                                sampleBlock(chunk, Chunks.toRelativeX(x), Chunks.toRelativeY(y), Chunks.toRelativeZ(z),
+                                        index, fluidIds, volumes, totalVolumes);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new FluidVolumeSample(region.getMin(new Vector3i()), sizeX, sizeY, sizeZ, fluidIds, volumes, totalVolumes);
+    }
+
+    @Override
+    public FluidVolumeSample sampleChunk(Vector3ic chunkPos) {
+        Vector3i min = new Vector3i(chunkPos.x() * Chunks.SIZE_X, chunkPos.y() * Chunks.SIZE_Y, chunkPos.z() * Chunks.SIZE_Z);
+        return sample(new BlockRegion(min).setSize(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z));
+    }
+
+    private void sampleBlock(Chunk chunk, int x, int y, int z, int index, short[] fluidIds, float[] volumes, double[] totalVolumes) {
+        short fluidId = getFluidId(chunk.getBlock(x, y, z));
+        fluidIds[index] = fluidId;
+        if (fluidId < 0) {
+            return;
+        }
+        float volume;
+        if (flowingLiquidsEnabled) {
+            volume = volumeByHeight[LiquidData.getHeight((byte) chunk.getExtraData(flowIndex, x, y, z))];
+        } else {
+            volume = FluidAuthoritySystem.FLUID_PER_BLOCK;
+        }
+        volumes[index] = volume;
+        if (fluidId < totalVolumes.length) {
+            totalVolumes[fluidId] += volume;
+        }
+    }
+
+    /**
+     * Looks up the fluid of a block type, remembering the answer for the next blocks of the same type.
+     *
+     * @param block The block type
+     * @return      The fluid id, or {@link FluidVolumeSample#NO_FLUID} if it isn't a registered liquid
+     */
+    private short getFluidId(Block block) {
+        int blockId = block.getId();
+        if (blockId >= fluidIdByBlock.length) {
+            int oldLength = fluidIdByBlock.length;
+            fluidIdByBlock = Arrays.copyOf(fluidIdByBlock, Math.max(blockId + 1, oldLength * 2));
+            Arrays.fill(fluidIdByBlock, oldLength, fluidIdByBlock.length, UNKNOWN);
+        }
+        short fluidId = fluidIdByBlock[blockId];
+        if (fluidId == UNKNOWN) {
+            String fluidType = block.isLiquid() ? fluidRegistry.getCorrespondingFluid(block) : null;
+            int registeredId = fluidRegistry.getFluidId(fluidType);
+            fluidId = registeredId >= 0 ? (short) registeredId : FluidVolumeSample.NO_FLUID;
+            fluidIdByBlock[blockId] = fluidId;
+        }
+        return fluidId;
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3ic;
+
+/**
+ * Keeps the total volume of each fluid in every loaded chunk of the world. Liquid flowing without blocks being added or
+ * removed is only picked up periodically, so the totals are approximate while liquid is levelling out.
+ */
+public interface FluidWorldVolumeIndex {
+    /**
+     * Accessor function that returns whether a chunk is indexed.
+     *
+     * @param chunkPos The position of the chunk
+     * @return         Whether the chunk is loaded and indexed
+     */
+    boolean isIndexed(Vector3ic chunkPos);
+
+    /**
+     * Accessor function that returns the total volume of a fluid in a chunk.
+     *
+     * @param chunkPos  The position of the chunk
+     * @param fluidType The fluid type
+     * @return          The total volume in litres, or 0 if the chunk isn't indexed
+     */
+    double getChunkVolume(Vector3ic chunkPos, String fluidType);
+
+    /**
+     * Accessor function that returns the total volume of all fluids in a chunk.
+     *
+     * @param chunkPos The position of the chunk
+     * @return         The total volume in litres, or 0 if the chunk isn't indexed
+     */
+    double getChunkVolume(Vector3ic chunkPos);
+
+    /**
+     * Updates the index after the liquid of a block changed without the block itself changing, such as when only its
+     * liquid height was modified.
+     *
+     * @param blockPos The position of the block
+     */
+    void refreshBlock(Vector3ic blockPos);
+
+    /**
+     * Recomputes the totals of a chunk from scratch, for changes made in bulk.
+     *
+     * @param chunkPos The position of the chunk
+     */
+    void refreshChunk(Vector3ic chunkPos);
+}
@@ -0,0 +1,269 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.system;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.core.ComponentSystemManager;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.WorldComponent;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.OnChangedBlock;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
+import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.flowingliquids.world.block.LiquidData;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes the fluid totals of a chunk when it is loaded, then keeps them up to date from block changes and from
+ * {@link #refreshBlock} calls for liquid height changes. To know how much fluid a block held before a change, the
+ * liquid level of every block is cached for the chunks that contain any liquid.
+ * <p>
+ * FlowingLiquids changes liquid heights without any event. While liquid is flowing, each liquid block it adds or
+ * removes marks the chunks around it as flowing, and the totals of a flowing chunk are re-sampled lazily when read, at
+ * most once every {@link #RESAMPLE_INTERVAL} milliseconds, until {@link #SETTLE_TIME} milliseconds after its last
+ * liquid block change. Height changes after that are only picked up by {@link #refreshChunk}, so the totals are
+ * approximate where liquid keeps levelling out without adding or removing blocks.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(FluidWorldVolumeIndex.class)
+public class FluidWorldVolumeIndexImpl extends BaseComponentSystem implements FluidWorldVolumeIndex {
+    /** The minimum time between two samples of a flowing chunk, in milliseconds */
+    private static final long RESAMPLE_INTERVAL = 1000;
+    /** The time after its last liquid block change during which a chunk counts as flowing, in milliseconds */
+    private static final long SETTLE_TIME = 10000;
+
+    @In
+    private FluidWorldSampler fluidWorldSampler;
+    @In
+    private FluidRegistry fluidRegistry;
+    @In
+    private ComponentSystemManager componentSystemManager;
+    @In
+    private Time time;
+
+    private boolean flowingLiquidsEnabled;
+    private Map<Vector3ic, ChunkEntry> chunks = new HashMap<>();
+
+    @Override
+    public void initialise() {
+        flowingLiquidsEnabled = componentSystemManager.get("FlowingLiquids:LiquidFlowSystem") != null;
+    }
+
+    @Override
+    public void shutdown() {
+        chunks.clear();
+    }
+
+    /**
+     * Indexes a chunk when it is loaded.
+     *
+     * @param event       Event that indicates the chunk was loaded
+     * @param worldEntity The world entity
+     */
+    @ReceiveEvent(components = WorldComponent.class)
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        refreshChunk(event.getChunkPos());
+    }
+
+    /**
+     * Drops the totals of a chunk before it is unloaded.
+     *
+     * @param event       Event that indicates the chunk is about to be unloaded
+     * @param worldEntity The world entity
+     */
+    @ReceiveEvent(components = WorldComponent.class)
+    public void onChunkUnloading(BeforeChunkUnload event, EntityRef worldEntity) {
+        chunks.remove(event.getChunkPos());
+    }
+
+    /**
+     * Updates the totals of a chunk when one of its blocks is replaced.
+     *
+     * @param event       Event that indicates the change
+     * @param blockEntity The entity of the changed block
+     */
+    @ReceiveEvent(components = BlockComponent.class)
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        if (event.getOldType().isLiquid() || event.getNewType().isLiquid()) {
+            refreshBlock(event.getBlockPosition());
+            if (flowingLiquidsEnabled) {
+                markFlowing(event.getBlockPosition());
+            }
+        }
+    }
+
+    @Override
+    public boolean isIndexed(Vector3ic chunkPos) {
+        return chunks.containsKey(chunkPos);
+    }
+
+    @Override
+    public double getChunkVolume(Vector3ic chunkPos, String fluidType) {
+        ChunkEntry entry = getCurrentEntry(chunkPos);
+        int fluidId = fluidRegistry.getFluidId(fluidType);
+        if (entry == null || fluidId < 0 || fluidId >= entry.totals.length) {
+            return 0;
+        }
+        return entry.totals[fluidId];
+    }
+
+    @Override
+    public double getChunkVolume(Vector3ic chunkPos) {
+        ChunkEntry entry = getCurrentEntry(chunkPos);
+        return entry != null ? entry.total : 0;
+    }
+
+    @Override
+    public void refreshBlock(Vector3ic blockPos) {
+        Vector3i chunkPos = Chunks.toChunkPos(blockPos, new Vector3i());
+        ChunkEntry entry = chunks.get(chunkPos);
+        if (entry == null) {
+            return;
+        }
+        // Sampling a single block is cheap, and reads the block and its liquid height the same way a chunk is read.
+        FluidVolumeSample sample = fluidWorldSampler.sample(new BlockRegion(blockPos));
+        short fluidId = sample.getFluidId(0);
+        int level = fluidId >= 0 ? toLevel(sample.getVolume(0)) : 0;
+
+        int index = Chunks.toRelativeX(blockPos.x()) + Chunks.SIZE_X * (Chunks.toRelativeY(blockPos.y())
+                + Chunks.SIZE_Y * Chunks.toRelativeZ(blockPos.z()));
+        entry.setBlock(index, fluidId, level);
+    }
+
+    @Override
+    public void refreshChunk(Vector3ic chunkPos) {
+        FluidVolumeSample sample = fluidWorldSampler.sampleChunk(chunkPos);
+        ChunkEntry oldEntry = chunks.get(chunkPos);
+        ChunkEntry entry = new ChunkEntry();
+        entry.sampledAt = time.getGameTimeInMs();
+        entry.lastLiquidChange = oldEntry != null ? oldEntry.lastLiquidChange : Long.MIN_VALUE;
+        short[] fluidIds = sample.getFluidIds();
+        float[] volumes = sample.getVolumes();
+        for (int index = 0; index < fluidIds.length; index++) {
+            if (fluidIds[index] >= 0) {
+                entry.setBlock(index, fluidIds[index], toLevel(volumes[index]));
+            }
+        }
+        chunks.put(new Vector3i(chunkPos), entry);
+    }
+
+    /**
+     * Get the entry of a chunk, re-sampling it first if liquid has been flowing in it since it was last sampled.
+     *
+     * @param chunkPos The position of the chunk
+     * @return         The entry of the chunk, or null if it isn't indexed
+     */
+    private ChunkEntry getCurrentEntry(Vector3ic chunkPos) {
+        ChunkEntry entry = chunks.get(chunkPos);
+        if (entry != null && entry.lastLiquidChange != Long.MIN_VALUE) {
+            long now = time.getGameTimeInMs();
+            if (entry.sampledAt < entry.lastLiquidChange + SETTLE_TIME && now - entry.sampledAt >= RESAMPLE_INTERVAL) {
+                refreshChunk(chunkPos);
+                entry = chunks.get(chunkPos);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Mark the chunk of a block, and those of its neighbours, as having liquid flowing in them.
+     *
+     * @param blockPos The position of a liquid block that was added or removed
+     */
+    private void markFlowing(Vector3ic blockPos) {
+        long now = time.getGameTimeInMs();
+        Vector3i chunkPos = new Vector3i();
+        Vector3i neighbourPos = new Vector3i();
+        markFlowing(Chunks.toChunkPos(blockPos, chunkPos), now);
+        for (Side side : Side.values()) {
+            neighbourPos.set(blockPos).add(side.direction());
+            Chunks.toChunkPos(neighbourPos, neighbourPos);
+            if (!neighbourPos.equals(chunkPos)) {
+                markFlowing(neighbourPos, now);
+            }
+        }
+    }
+
+    private void markFlowing(Vector3ic chunkPos, long now) {
+        ChunkEntry entry = chunks.get(chunkPos);
+        if (entry != null) {
+            entry.lastLiquidChange = now;
+        }
+    }
+
+    private static int toLevel(float volume) {
+        return Math.round(volume * LiquidData.MAX_HEIGHT / FluidAuthoritySystem.FLUID_PER_BLOCK);
+    }
+
+    private static double toVolume(int level) {
+        return (double) level * FluidAuthoritySystem.FLUID_PER_BLOCK / LiquidData.MAX_HEIGHT;
+    }
+
+    /**
+     * The fluid totals of a chunk, with the fluid and liquid level of each of its blocks.
+     */
+    private static final class ChunkEntry {
+        private double[] totals = new double[0];
+        private double total;
+        /** The fluid id of each block, allocated once the chunk holds any liquid */
+        private short[] blockFluids;
+        /** The liquid level of each block, allocated together with the fluid ids */
+        private byte[] blockLevels;
+        /** The game time the chunk was last sampled as a whole, in milliseconds */
+        private long sampledAt;
+        /** The game time a liquid block was last added or removed in or next to the chunk, in milliseconds */
+        private long lastLiquidChange = Long.MIN_VALUE;
+
+        /**
+         * Replaces the liquid of a block, moving the difference between the totals.
+         *
+         * @param index   The index of the block within the chunk
+         * @param fluidId The new fluid id of the block, or a negative value if it holds no fluid
+         * @param level   The new liquid level of the block
+         */
+        private void setBlock(int index, short fluidId, int level) {
+            if (blockFluids == null) {
+                if (fluidId < 0) {
+                    return;
+                }
+                blockFluids = new short[Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z];
+                Arrays.fill(blockFluids, FluidVolumeSample.NO_FLUID);
+                blockLevels = new byte[blockFluids.length];
+            }
+            short oldFluidId = blockFluids[index];
+            if (oldFluidId >= 0) {
+                add(oldFluidId, -toVolume(blockLevels[index]));
+            }
+            if (fluidId >= 0) {
+                add(fluidId, toVolume(level));
+                blockFluids[index] = fluidId;
+                blockLevels[index] = (byte) level;
+            } else {
+                blockFluids[index] = FluidVolumeSample.NO_FLUID;
+                blockLevels[index] = 0;
+            }
+        }
+
+        private void add(int fluidId, double volume) {
+            if (fluidId >= totals.length) {
+                totals = Arrays.copyOf(totals, fluidId + 1);
+            }
+            totals[fluidId] += volume;
+            total += volume;
+        }
+    }
+}
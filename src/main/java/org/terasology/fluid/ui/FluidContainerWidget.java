@@ -10,7 +10,9 @@ import org.terasology.engine.rendering.assets.texture.TextureRegion;
 import org.terasology.engine.utilities.Assets;
 import org.terasology.fluid.component.FluidComponent;
 import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidSummaryComponent;
 import org.terasology.fluid.system.FluidContainerAssetResolver;
+import org.terasology.fluid.system.FluidInterest;
 import org.terasology.fluid.system.FluidRegistry;
 import org.terasology.joml.geom.Rectanglei;
 import org.terasology.nui.BaseInteractionListener;
@@ -24,6 +26,12 @@ import org.terasology.nui.databinding.DefaultBinding;
 
 /**
  * The UI widget for fluid containers.
+ * <p>
+ * While it is drawn, the widget keeps asking the server for the slot entities of the fluid inventory through
+ * {@link FluidInterest}. An entity can only be replicated to a single owner, so when several clients view the same fluid
+ * inventory, only the one that opened it first gets the slot entities. The others draw from the
+ * {@link FluidSummaryComponent}, whose fill levels are rounded to 1/64 of the slot, until the clients before them
+ * close the fluid inventory.
  */
 public class FluidContainerWidget extends CoreWidget {
     FluidRegistry fluidRegistry;
@@ -85,6 +93,11 @@ public class FluidContainerWidget extends CoreWidget {
     public void onDraw(Canvas canvas) {
         TextureRegion texture = getImage();
         if (texture != null) {
+            FluidInterest fluidInterest = CoreRegistry.get(FluidInterest.class);
+            if (fluidInterest != null) {
+                fluidInterest.touch(entity);
+            }
+
             FluidInventoryComponent fluidInventory = entity.getComponent(FluidInventoryComponent.class);
             FluidComponent fluid = fluidInventory.fluidSlots.get(slotNo).getComponent(FluidComponent.class);
             float maxVolume = fluidInventory.maximumVolumes.get(slotNo);
@@ -94,7 +107,17 @@ public class FluidContainerWidget extends CoreWidget {
             if (fluid != null) {
                 currentVolume = fluid.volume;
                 fluidType = fluid.fluidType;
-                float result = fluid.volume / maxVolume;
+            } else {
+                // The slot entities only reach this client a moment after it started viewing the container.
+                FluidSummaryComponent summary = entity.getComponent(FluidSummaryComponent.class);
+                if (summary != null && slotNo < summary.fluidTypes.size() && slotNo < summary.fillFractions.size()) {
+                    fluidType = summary.fluidTypes.get(slotNo);
+                    currentVolume = summary.fillFractions.get(slotNo) * maxVolume;
+                }
+            }
+
+            if (fluidType != null) {
+                float result = currentVolume / maxVolume;
 
                 Vector2i size = canvas.size();
                 int fluidMinY;
@@ -0,0 +1,318 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.fluid.ui;
+
+import org.joml.Vector2i;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.registry.CoreRegistry;
+import org.terasology.engine.rendering.assets.texture.Texture;
+import org.terasology.engine.rendering.assets.texture.TextureRegion;
+import org.terasology.engine.utilities.Assets;
+import org.terasology.fluid.component.FluidComponent;
+import org.terasology.fluid.component.FluidInventoryComponent;
+import org.terasology.fluid.component.FluidSummaryComponent;
+import org.terasology.fluid.system.FluidContainerAssetResolver;
+import org.terasology.fluid.system.FluidInterest;
+import org.terasology.fluid.system.FluidRegistry;
+import org.terasology.joml.geom.Rectanglei;
+import org.terasology.nui.BaseInteractionListener;
+import org.terasology.nui.Canvas;
+import org.terasology.nui.CoreWidget;
+import org.terasology.nui.InteractionListener;
+import org.terasology.nui.LayoutConfig;
+import org.terasology.nui.ScaleMode;
+import org.terasology.nui.databinding.Binding;
+import org.terasology.nui.databinding.DefaultBinding;
+import org.terasology.nui.events.NUIMouseOverEvent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The UI widget for a whole fluid inventory, drawing its slots as a grid of fluid containers.
+ * <p>
+ * The fluid inventory is read once per draw, the fluid textures are looked up once per fluid type and shared by all
+ * the slots, and the tooltip of a slot is only formatted again when its contents change.
+ */
+public class FluidInventoryWidget extends CoreWidget {
+    FluidRegistry fluidRegistry;
+
+    @LayoutConfig
+    private Binding<TextureRegion> image = new DefaultBinding<>(Assets.getTextureRegion("Fluid:FluidContainer").get());
+
+    /** The number of slots per row */
+    @LayoutConfig
+    private int columns = 4;
+
+    /** The area of the container image the fluid fills, in pixels of the image, the fluid rising from minY to maxY */
+    @LayoutConfig
+    private int minX;
+    @LayoutConfig
+    private int maxX;
+    @LayoutConfig
+    private int minY;
+    @LayoutConfig
+    private int maxY;
+
+    private EntityRef entity = EntityRef.NULL;
+
+    private Map<String, Texture> fluidTextures = new HashMap<>();
+    private String[] tooltips = new String[0];
+    private String[] tooltipFluidTypes = new String[0];
+    private int[] tooltipVolumes = new int[0];
+    private int hoveredSlot = -1;
+
+    private InteractionListener listener = new BaseInteractionListener() {
+        @Override
+        public void onMouseOver(NUIMouseOverEvent event) {
+            hoveredSlot = getSlotAt(event.getRelativeMousePosition());
+        }
+
+        @Override
+        public void onMouseLeave() {
+            hoveredSlot = -1;
+        }
+    };
+
+    /** The size of a slot as of the last draw, to find the slot under the mouse */
+    private int cellWidth;
+    private int cellHeight;
+    private int slotCount;
+
+    /**
+     * Default constructor.
+     */
+    public FluidInventoryWidget() {
+        fluidRegistry = CoreRegistry.get(FluidRegistry.class);
+    }
+
+    /**
+     * Parametrized constructor with a specified ID.
+     *
+     * @param id The ID to assign to the widget
+     */
+    public FluidInventoryWidget(String id) {
+        super(id);
+        fluidRegistry = CoreRegistry.get(FluidRegistry.class);
+    }
+
+    /**
+     * Defines how the fluid inventory widget is drawn.
+     *
+     * @param canvas The canvas on which the widget is drawn
+     */
+    @Override
+    public void onDraw(Canvas canvas) {
+        TextureRegion texture = getImage();
+        FluidInventoryComponent fluidInventory = entity.getComponent(FluidInventoryComponent.class);
+        if (texture == null || fluidInventory == null) {
+            slotCount = 0;
+            return;
+        }
+
+        FluidInterest fluidInterest = CoreRegistry.get(FluidInterest.class);
+        if (fluidInterest != null) {
+            fluidInterest.touch(entity);
+        }
+        FluidSummaryComponent summary = entity.getComponent(FluidSummaryComponent.class);
+
+        slotCount = fluidInventory.fluidSlots.size();
+        ensureTooltipCapacity(slotCount);
+        int columnCount = Math.max(1, columns);
+        int rowCount = Math.max(1, (slotCount + columnCount - 1) / columnCount);
+        Vector2i size = canvas.size();
+        cellWidth = size.x / columnCount;
+        cellHeight = size.y / rowCount;
+        float scaleX = (float) cellWidth / texture.getWidth();
+        float scaleY = (float) cellHeight / texture.getHeight();
+
+        // The slots are stored in linked lists, so walk them rather than indexing into them.
+        Iterator<EntityRef> fluidSlots = fluidInventory.fluidSlots.iterator();
+        Iterator<Float> maximumVolumes = fluidInventory.maximumVolumes.iterator();
+        for (int slot = 0; slot < slotCount && maximumVolumes.hasNext(); slot++) {
+            FluidComponent fluid = fluidSlots.next().getComponent(FluidComponent.class);
+            float maxVolume = maximumVolumes.next();
+            String fluidType = null;
+            float currentVolume = 0;
+            if (fluid != null) {
+                fluidType = fluid.fluidType;
+                currentVolume = fluid.volume;
+            } else if (summary != null && slot < summary.fluidTypes.size() && slot < summary.fillFractions.size()) {
+                // The slot entities only reach this client a moment after it started viewing the container.
+                fluidType = summary.fluidTypes.get(slot);
+                currentVolume = summary.fillFractions.get(slot) * maxVolume;
+            }
+
+            int cellX = (slot % columnCount) * cellWidth;
+            int cellY = (slot / columnCount) * cellHeight;
+            if (fluidType != null && maxVolume > 0) {
+                Texture fluidTexture = getFluidTexture(fluidType);
+                if (fluidTexture != null) {
+                    float fill = Math.min(1f, currentVolume / maxVolume);
+                    int fillMinY = Math.round(minY * scaleY);
+                    int fillY = Math.round((minY + fill * (maxY - minY)) * scaleY);
+                    int x = cellX + Math.round(minX * scaleX);
+                    int width = Math.round((maxX - minX) * scaleX);
+                    int y = cellY + Math.min(fillMinY, fillY);
+                    int height = Math.abs(fillY - fillMinY);
+                    if (width > 0 && height > 0) {
+                        canvas.drawTextureRaw(fluidTexture, new Rectanglei(x, y).setSize(width, height), ScaleMode.TILED);
+                    }
+                }
+            }
+            canvas.drawTexture(texture, new Rectanglei(cellX, cellY).setSize(cellWidth, cellHeight));
+            updateTooltip(slot, fluidType, currentVolume, maxVolume);
+        }
+
+        setTooltipDelay(0);
+        setTooltip(hoveredSlot >= 0 && hoveredSlot < slotCount ? tooltips[hoveredSlot] : null);
+        canvas.addInteractionRegion(listener);
+    }
+
+    /**
+     * Gets the texture of a fluid, looking it up only the first time it is drawn.
+     *
+     * @param fluidType The type of the fluid
+     * @return          The texture of the fluid, or null if it isn't available
+     */
+    private Texture getFluidTexture(String fluidType) {
+        Texture fluidTexture = fluidTextures.get(fluidType);
+        if (fluidTexture == null) {
+            fluidTexture = Assets.getTexture(FluidContainerAssetResolver.getFluidBaseUri(fluidType)).orElse(null);
+            if (fluidTexture != null) {
+                fluidTextures.put(fluidType, fluidTexture);
+            }
+        }
+        return fluidTexture;
+    }
+
+    /**
+     * Formats the tooltip of a slot again if its displayed contents changed.
+     *
+     * @param slot          The slot number
+     * @param fluidType     The type of fluid in the slot, or null
+     * @param currentVolume The volume of fluid in the slot
+     * @param maxVolume     The maximum volume of the slot
+     */
+    private void updateTooltip(int slot, String fluidType, float currentVolume, float maxVolume) {
+        int displayedVolume = Math.round(currentVolume);
+        if (tooltips[slot] != null && Objects.equals(tooltipFluidTypes[slot], fluidType) && tooltipVolumes[slot] == displayedVolume) {
+            return;
+        }
+        String fluidDisplay = fluidType == null ? "Fluid" : fluidRegistry.getDisplayName(fluidType);
+        tooltips[slot] = String.format(fluidDisplay + ": %.0f/%.0f", currentVolume, maxVolume);
+        tooltipFluidTypes[slot] = fluidType;
+        tooltipVolumes[slot] = displayedVolume;
+    }
+
+    private void ensureTooltipCapacity(int count) {
+        if (tooltips.length != count) {
+            tooltips = new String[count];
+            tooltipFluidTypes = new String[count];
+            tooltipVolumes = new int[count];
+        }
+    }
+
+    /**
+     * Finds the slot drawn at a position of the widget.
+     *
+     * @param position The position, relative to the widget
+     * @return         The slot number, or -1 if there is no slot there
+     */
+    private int getSlotAt(Vector2i position) {
+        if (cellWidth <= 0 || cellHeight <= 0 || position.x < 0 || position.y < 0) {
+            return -1;
+        }
+        int column = position.x / cellWidth;
+        int columnCount = Math.max(1, columns);
+        if (column >= columnCount) {
+            return -1;
+        }
+        int slot = (position.y / cellHeight) * columnCount + column;
+        return slot < slotCount ? slot : -1;
+    }
+
+    /**
+     * Setter function to set the entity whose fluid inventory the widget shows.
+     *
+     * @param entity The entity that houses the fluid inventory
+     */
+    public void setEntity(EntityRef entity) {
+        this.entity = entity;
+        this.hoveredSlot = -1;
+        this.tooltips = new String[0];
+    }
+
+    /**
+     * Gets the preferred size of the widget contents.
+     *
+     * @param canvas   The canvas on which the widget is to be drawn
+     * @param sizeHint The size hint passed by the NUI system
+     * @return         The preferred size of the widget
+     */
+    @Override
+    public Vector2i getPreferredContentSize(Canvas canvas, Vector2i sizeHint) {
+        TextureRegion texture = image.get();
+        if (texture == null) {
+            return new Vector2i();
+        }
+        FluidInventoryComponent fluidInventory = entity.getComponent(FluidInventoryComponent.class);
+        int slots = fluidInventory != null ? fluidInventory.fluidSlots.size() : 0;
+        int columnCount = Math.max(1, Math.min(columns, slots));
+        int rowCount = Math.max(1, (slots + columnCount - 1) / columnCount);
+        return new Vector2i(texture.getWidth() * columnCount, texture.getHeight() * rowCount);
+    }
+
+    /**
+     * Accessor function which returns the image of a slot.
+     *
+     * @return The image of a slot
+     */
+    public TextureRegion getImage() {
+        return image.get();
+    }
+
+    /**
+     * Setter function to set the image of a slot.
+     *
+     * @param image The image to draw for each slot
+     */
+    public void setImage(TextureRegion image) {
+        this.image.set(image);
+    }
+
+    /**
+     * Setter function to set the image of a slot to a given binding.
+     *
+     * @param binding The binding to set as the image of a slot
+     */
+    public void bindTexture(Binding<TextureRegion> binding) {
+        this.image = binding;
+    }
+
+    /**
+     * Setter function to set the number of slots per row.
+     *
+     * @param columns The number of slots per row
+     */
+    public void setColumns(int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Set the area of the slot image the fluid fills, in pixels of the image.
+     *
+     * @param minX The X co-ordinate where the fluid starts
+     * @param minY The Y co-ordinate the fluid rises from
+     * @param maxX The X co-ordinate where the fluid ends
+     * @param maxY The Y co-ordinate the fluid rises towards
+     */
+    public void setFluidArea(int minX, int minY, int maxX, int maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+}